@@ -0,0 +1,94 @@
+package ru.hogwarts.school.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarMetrics;
+import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.NearCache;
+import ru.hogwarts.school.service.SingleFlight;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvatarIoBenchmark {
+
+    @Param({"10240", "307200"})
+    private int avatarBytes;
+
+    private Path avatarsDir;
+    private AvatarService avatarService;
+    private MockMultipartFile file;
+    private Path uploaded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Stubs.quietLogging();
+        avatarsDir = Files.createTempDirectory("avatar-bench");
+
+        Student student = new Student();
+        student.setId(1L);
+        StudentRepository studentRepository = Stubs.repository(StudentRepository.class,
+                (method, args) -> method.equals("findById") ? Optional.of(student) : null);
+        AvatarRepository avatarRepository = Stubs.repository(AvatarRepository.class, (method, args) -> switch (method) {
+            case "findByStudentId" -> Optional.empty();
+            case "save" -> args[0];
+            default -> null;
+        });
+
+        avatarService = new AvatarService(avatarRepository,
+                Stubs.studentService(studentRepository),
+                new SingleFlight<Long, Avatar>("avatar"),
+                new AvatarMetrics(new SimpleMeterRegistry()),
+                new NearCache<Avatar>("avatar", 1_000),
+                Stubs.invalidationPublisher(),
+                Stubs.changeFeed(),
+                Stubs.transactionManager());
+        Stubs.setField(avatarService, "avatarsDir", avatarsDir.toString());
+
+        byte[] content = new byte[avatarBytes];
+        new Random(42).nextBytes(content);
+        file = new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", content);
+        avatarService.uploadAvatar(1L, file);
+        uploaded = avatarsDir.resolve("1.jpg");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(avatarsDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void uploadAvatar() throws IOException {
+        avatarService.uploadAvatar(1L, file);
+    }
+
+    // Тот же путь чтения, что и в AvatarController.downloadAvatar
+    @Benchmark
+    public long readAvatarFile() throws IOException {
+        try (InputStream is = Files.newInputStream(uploaded);
+             OutputStream os = OutputStream.nullOutputStream()) {
+            return is.transferTo(os);
+        }
+    }
+}
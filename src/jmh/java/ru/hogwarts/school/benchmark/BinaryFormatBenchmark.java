@@ -0,0 +1,93 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.hogwarts.school.config.ProtobufDtoHttpMessageConverter;
+import ru.hogwarts.school.dto.SimpleFacultyDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Кодирование и декодирование списка StudentDTO теми же конвертерами, что работают в Spring MVC.
+// Размер ответа печатается при подготовке каждого набора параметров
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+    private static final Type STUDENT_LIST = new ParameterizedTypeReference<List<StudentDTO>>() {
+    }.getType();
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"10", "1000"})
+    private int students;
+
+    private GenericHttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private List<StudentDTO> studentDTOs;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "json" -> {
+                converter = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+                mediaType = MediaType.APPLICATION_JSON;
+            }
+            case "cbor" -> {
+                converter = new MappingJackson2CborHttpMessageConverter(new CBORMapper());
+                mediaType = MediaType.APPLICATION_CBOR;
+            }
+            case "smile" -> {
+                converter = new MappingJackson2SmileHttpMessageConverter(new SmileMapper());
+                mediaType = new MediaType("application", "x-jackson-smile");
+            }
+            case "protobuf" -> {
+                converter = new ProtobufDtoHttpMessageConverter();
+                mediaType = ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF;
+            }
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        SimpleFacultyDTO faculty = new SimpleFacultyDTO(1L, "Гриффиндор", "Красный");
+        studentDTOs = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            StudentDTO dto = new StudentDTO((long) i + 1, "Студент " + i, 16 + i % 4, faculty);
+            dto.setVersion((long) i % 3);
+            studentDTOs.add(dto);
+        }
+
+        encoded = encode();
+        System.out.printf("%n%s, %d students: %d bytes%n", format, students, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(studentDTOs, STUDENT_LIST, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return converter.read(STUDENT_LIST, null, new MockHttpInputMessage(encoded));
+    }
+}
@@ -0,0 +1,105 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.service.FacultyService;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /faculty с fields= и без него на настоящем PostgreSQL: query — только чтение из базы,
+// listing — чтение вместе с JSON. Размер ответа печатается при подготовке каждого набора параметров
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldsetBenchmark {
+    private static final int FACULTIES = 20;
+
+    // full — полный FacultyDTO, как без параметра fields
+    @Param({"full", "id,name", "id,name,color,students"})
+    private String fields;
+
+    @Param({"1000"})
+    private int students;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private FacultyService facultyService;
+    private FacultyMapper facultyMapper;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+        context = new SpringApplicationBuilder(SchoolApplication.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--cache.invalidation.listen=false");
+        seed(context.getBean(JdbcTemplate.class));
+
+        facultyService = context.getBean(FacultyService.class);
+        facultyMapper = context.getBean(FacultyMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        System.out.printf("%nfields=%s, %d students: %d bytes%n", fields, students, listing().length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Object query() {
+        if (fields.equals("full")) {
+            List<FacultyDTO> faculties = new ArrayList<>();
+            facultyService.streamAllFaculties().forEach(faculty -> faculties.add(facultyMapper.toDTO(faculty)));
+            return faculties;
+        }
+        return facultyService.getFacultiesFields(null, null, fields);
+    }
+
+    @Benchmark
+    public byte[] listing() throws IOException {
+        return objectMapper.writeValueAsBytes(query());
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> faculties = new ArrayList<>();
+        for (long id = 1; id <= FACULTIES; id++) {
+            faculties.add(new Object[]{id, "Факультет " + id, "Цвет " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO faculties (id, name, color) VALUES (?, ?, ?)", faculties);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= students; id++) {
+            rows.add(new Object[]{id, "Студент " + id, 16 + (int) (id % 5), 1 + (id % FACULTIES)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (id, name, age, faculty_id) VALUES (?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
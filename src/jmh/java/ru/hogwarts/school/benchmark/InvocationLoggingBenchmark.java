@@ -0,0 +1,56 @@
+package ru.hogwarts.school.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import ru.hogwarts.school.logging.LogMarkers;
+import ru.hogwarts.school.logging.SampledInfoTurboFilter;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Попадание в near-cache в getStudentById — почти чистая стоимость строки "Was invoked method":
+// all — каждая строка форматируется и пишется, sampled — настройки logback-spring.xml вне dev.
+// Аллокации: -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationLoggingBenchmark {
+
+    @Param({"all", "sampled"})
+    private String logging;
+
+    private StudentService studentService;
+
+    @Setup
+    public void setUp() {
+        Stubs.discardingLogging();
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.resetTurboFilterList();
+        if (logging.equals("sampled")) {
+            SampledInfoTurboFilter filter = new SampledInfoTurboFilter();
+            filter.setContext(context);
+            filter.setMarker(LogMarkers.INVOCATION.getName());
+            filter.setSampleRate(10);
+            filter.setMaxPerSecond(50);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        Student student = new Student(1L, "Студент 1", 17);
+        StudentRepository repository = Stubs.repository(StudentRepository.class,
+                (method, args) -> method.equals("findById") ? Optional.of(student) : null);
+        studentService = Stubs.studentService(repository);
+    }
+
+    @Benchmark
+    public Student cachedLookup() {
+        return studentService.getStudentById(1L);
+    }
+}
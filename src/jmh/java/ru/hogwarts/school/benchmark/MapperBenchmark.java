@@ -0,0 +1,63 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.mapper.StudentMapper;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int studentsPerFaculty;
+
+    private FacultyMapper facultyMapper;
+    private StudentMapper studentMapper;
+    private Faculty faculty;
+    private Student student;
+
+    @Setup
+    public void setUp() {
+        facultyMapper = new FacultyMapper();
+        studentMapper = new StudentMapper(facultyMapper);
+
+        faculty = new Faculty();
+        faculty.setId(1L);
+        faculty.setName("Гриффиндор");
+        faculty.setColor("Красный");
+
+        List<Student> students = new ArrayList<>(studentsPerFaculty);
+        for (int i = 0; i < studentsPerFaculty; i++) {
+            Student s = new Student();
+            s.setId((long) i + 1);
+            s.setName("Студент " + i);
+            s.setAge(16 + i % 4);
+            s.setFaculty(faculty);
+            students.add(s);
+        }
+        faculty.setStudents(students);
+        student = students.get(0);
+    }
+
+    @Benchmark
+    public StudentDTO studentToDTO() {
+        return studentMapper.toDTO(student);
+    }
+
+    @Benchmark
+    public FacultyDTO facultyToDTO() {
+        return facultyMapper.toDTO(faculty);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.controller.GlobalExceptionHandler;
+import ru.hogwarts.school.controller.StudentController;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// GET /student/{id} для несуществующего id через DispatcherServlet целиком: current — StudentController,
+// StudentService и GlobalExceptionHandler; legacy — прежний путь: исключение со стеком полной глубины,
+// WARN в сервисе и WARN со стеком в контроллере. Логирование в обоих вариантах одинаково включено на INFO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundPathBenchmark {
+    private static final String MISSING_STUDENT = "/student/9999";
+
+    private MockMvc current;
+    private MockMvc legacy;
+
+    @Setup
+    public void setUp() {
+        Stubs.discardingLogging();
+        StudentRepository repository = Stubs.repository(StudentRepository.class,
+                (method, args) -> method.equals("findById") ? Optional.empty() : null);
+
+        current = MockMvcBuilders
+                .standaloneSetup(new StudentController(Stubs.studentService(repository), null, null, null,
+                        new ObjectMapper()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        legacy = MockMvcBuilders
+                .standaloneSetup(new LegacyStudentController(repository))
+                .build();
+    }
+
+    @Benchmark
+    public int current() throws Exception {
+        return current.perform(get(MISSING_STUDENT)).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int legacy() throws Exception {
+        return legacy.perform(get(MISSING_STUDENT)).andReturn().getResponse().getStatus();
+    }
+
+    // Повторяет контроллер и сервис до централизации ошибок, с теми же именами логгеров
+    @RequestMapping("student")
+    @RestController
+    public static class LegacyStudentController {
+        private static final Logger logger = LoggerFactory.getLogger(StudentController.class);
+        private static final Logger serviceLogger = LoggerFactory.getLogger("ru.hogwarts.school.service.StudentService");
+
+        private final StudentRepository studentRepository;
+
+        public LegacyStudentController(StudentRepository studentRepository) {
+            this.studentRepository = studentRepository;
+        }
+
+        @GetMapping("{id}")
+        public ResponseEntity<?> getStudent(@PathVariable long id) {
+            logger.info("Received request to get student by id: {}", id);
+
+            try {
+                Student student = getStudentById(id);
+                logger.info("Successfully retrieved student with id: {}", id);
+                return ResponseEntity.ok(student);
+            } catch (LegacyStudentNotFoundException e) {
+                logger.warn("Student not found with id: {}", id, e);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            }
+        }
+
+        private Student getStudentById(long id) {
+            serviceLogger.info("Was invoked method for get student by id");
+            try {
+                return studentRepository.findById(id)
+                        .orElseThrow(() -> new LegacyStudentNotFoundException("Student not found with id: " + id));
+            } catch (LegacyStudentNotFoundException e) {
+                serviceLogger.warn("Student not found with id: {}", id);
+                throw e;
+            }
+        }
+    }
+
+    // Прежний StudentNotFoundException: стек заполняется
+    static class LegacyStudentNotFoundException extends RuntimeException {
+        LegacyStudentNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.service.RosterAggregationService;
+import ru.hogwarts.school.service.RosterStatistics;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Масштабирование по ядрам: -Djmh.includes=RosterAggregationBenchmark, сравнивать parallelism=1 с остальными
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterAggregationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"100000", "1000000"})
+    public int students;
+
+    private RosterAggregationService service;
+    private int[] ages;
+    private int[] facultyIds;
+
+    @Setup
+    public void setUp() {
+        service = new RosterAggregationService(parallelism);
+        SplittableRandom random = new SplittableRandom(42);
+        ages = IntStream.range(0, students).map(i -> 11 + random.nextInt(8)).toArray();
+        facultyIds = IntStream.range(0, students).map(i -> 1 + random.nextInt(4)).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public RosterStatistics aggregate() {
+        return service.aggregate(ages, facultyIds);
+    }
+
+    @Benchmark
+    public long sumRange() {
+        return service.sumRange(1, 1_000_000);
+    }
+
+    // Прежняя реализация calculateOptimizedSum, для сравнения
+    @Benchmark
+    public int iterateLimit() {
+        return IntStream.iterate(1, a -> a + 1)
+                .parallel()
+                .limit(1_000_000)
+                .reduce(0, Integer::sum);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.SimpleStudentDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"4", "100"})
+    private int faculties;
+
+    @Param({"10", "1000"})
+    private int studentsPerFaculty;
+
+    private ObjectMapper objectMapper;
+    private List<FacultyDTO> facultyDTOs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        facultyDTOs = new ArrayList<>(faculties);
+        long studentId = 1;
+        for (int f = 0; f < faculties; f++) {
+            List<SimpleStudentDTO> students = new ArrayList<>(studentsPerFaculty);
+            for (int s = 0; s < studentsPerFaculty; s++, studentId++) {
+                students.add(new SimpleStudentDTO(studentId, "Студент " + studentId, 16 + s % 4));
+            }
+            facultyDTOs.add(new FacultyDTO((long) f + 1, "Факультет " + f, "Цвет " + f, students));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFacultyList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(facultyDTOs);
+    }
+}
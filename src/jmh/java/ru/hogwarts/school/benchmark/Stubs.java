@@ -0,0 +1,136 @@
+package ru.hogwarts.school.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.CacheInvalidationPublisher;
+import ru.hogwarts.school.service.ChangeFeed;
+import ru.hogwarts.school.service.NearCache;
+import ru.hogwarts.school.service.RosterAggregationService;
+import ru.hogwarts.school.service.SingleFlight;
+import ru.hogwarts.school.service.StudentService;
+import ru.hogwarts.school.service.StudentSnapshotService;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiFunction;
+
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    // Вне Spring logback-spring.xml не читается, и logback по умолчанию пишет DEBUG в консоль
+    static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    // INFO и выше форматируются полностью, вместе со стеком исключения, но пишутся в никуда:
+    // стоимость логирования входит в замер, а консоль не засоряется
+    static void discardingLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m%n%ex");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(Level.INFO);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, BiFunction<String, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    return answer.apply(method.getName(), args);
+            }
+        });
+    }
+
+    static StudentService studentService(StudentRepository studentRepository) {
+        FacultyRepository facultyRepository = repository(FacultyRepository.class, (method, args) -> null);
+        // Потоковые выборки в бенчмарках не вызываются, EntityStreamer не нужен
+        return new StudentService(studentRepository, new SingleFlight<Long, Student>("student"),
+                new RosterAggregationService(0), new StudentSnapshotService(studentRepository, facultyRepository, 60_000),
+                new NearCache<Student>("student", 10_000), invalidationPublisher(), null, changeFeed(),
+                transactionManager());
+    }
+
+    // Без базы pg_notify некуда отправлять: публикация только чистит локальные кэши
+    static CacheInvalidationPublisher invalidationPublisher() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                return null;
+            }
+        };
+        return new CacheInvalidationPublisher(jdbcTemplate, List.of(), "bench");
+    }
+
+    // Без базы транзакции пустые: TransactionTemplate просто вызывает загрузчик
+    static PlatformTransactionManager transactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+
+    // Без подписчиков публикация — только запись в кольцо истории
+    static ChangeFeed changeFeed() {
+        return new ChangeFeed(1_000, 256, Duration.ofSeconds(15));
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set field " + name, e);
+        }
+    }
+}
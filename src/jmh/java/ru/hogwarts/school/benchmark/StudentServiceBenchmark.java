@@ -0,0 +1,44 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    private StudentService studentService;
+
+    @Setup
+    public void setUp() {
+        Stubs.quietLogging();
+        StudentRepository repository = Stubs.repository(StudentRepository.class,
+                (method, args) -> method.equals("findById") ? Optional.empty() : null);
+        studentService = Stubs.studentService(repository);
+    }
+
+    @Benchmark
+    public Long calculateOptimizedSum() {
+        return studentService.calculateOptimizedSum();
+    }
+
+    // Путь 404 только внутри сервиса; весь путь через контроллер и advice — NotFoundPathBenchmark
+    @Benchmark
+    public String notFoundPath() {
+        try {
+            studentService.getStudentById(9999L);
+            return null;
+        } catch (StudentNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+}
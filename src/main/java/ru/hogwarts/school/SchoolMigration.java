@@ -0,0 +1,27 @@
+package ru.hogwarts.school;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Разовый прогон Liquibase перед запуском экземпляров с профилем startup: поднимаются только
+// DataSource и Liquibase, без Hibernate и веб-слоя.
+// java -cp target/extracted/school.jar ru.hogwarts.school.SchoolMigration
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+public class SchoolMigration {
+
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(migrate(args)));
+    }
+
+    public static ConfigurableApplicationContext migrate(String... args) {
+        return new SpringApplicationBuilder(SchoolMigration.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.liquibase.enabled=true")
+                .run(args);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// CBOR и Smile Spring MVC подключает сам, когда jackson-dataformat-cbor/-smile на classpath,
+// и ставит их после JSON. Protobuf добавляем в конец списка: без Accept ответ остаётся JSON
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufDtoHttpMessageConverter());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.service.ChangeFeed;
+
+import java.time.Duration;
+
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean
+    public ChangeFeed changeFeed(@Value("${changes.feed.history-size:1000}") int historySize,
+                                 @Value("${changes.feed.subscriber-buffer:256}") int subscriberBuffer,
+                                 @Value("${changes.feed.heartbeat-ms:15000}") long heartbeatMs) {
+        return new ChangeFeed(historySize, subscriberBuffer, Duration.ofMillis(heartbeatMs));
+    }
+
+    @Bean
+    public MeterBinder changeFeedMetrics(ChangeFeed changeFeed) {
+        return registry -> {
+            Gauge.builder("changes.feed.subscribers", changeFeed, ChangeFeed::getSubscribers)
+                    .register(registry);
+            FunctionCounter.builder("changes.feed.published", changeFeed, ChangeFeed::getPublished)
+                    .register(registry);
+            FunctionCounter.builder("changes.feed.dropped", changeFeed, ChangeFeed::getDropped)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.CacheInvalidationListener;
+import ru.hogwarts.school.service.NearCache;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class NearCacheConfig {
+
+    @Bean
+    public NearCache<Student> studentCache(@Value("${cache.near.max-size:10000}") int maxSize,
+                                           @Value("${cache.near.ttl-ms:0}") long ttlMs) {
+        return new NearCache<>("student", maxSize, Duration.ofMillis(ttlMs));
+    }
+
+    @Bean
+    public NearCache<Faculty> facultyCache(@Value("${cache.near.max-size:10000}") int maxSize,
+                                           @Value("${cache.near.ttl-ms:0}") long ttlMs) {
+        return new NearCache<>("faculty", maxSize, Duration.ofMillis(ttlMs));
+    }
+
+    @Bean
+    public NearCache<Avatar> avatarCache(@Value("${cache.near.avatar-max-size:1000}") int maxSize,
+                                         @Value("${cache.near.ttl-ms:0}") long ttlMs) {
+        return new NearCache<>("avatar", maxSize, Duration.ofMillis(ttlMs));
+    }
+
+    // Сжатый список всех факультетов под единственным ключом
+    @Bean
+    public NearCache<byte[]> facultyListingCache() {
+        return new NearCache<>("faculty-listing", 1);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.listen", havingValue = "true", matchIfMissing = true)
+    public CacheInvalidationListener cacheInvalidationListener(DataSourceProperties dataSourceProperties,
+                                                               List<NearCache<?>> caches,
+                                                               @Value("${cache.invalidation.channel:hogwarts_cache}") String channel,
+                                                               @Value("${cache.invalidation.batch-window-ms:50}") long batchWindowMs) {
+        return new CacheInvalidationListener(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                channel, Duration.ofMillis(batchWindowMs), caches);
+    }
+
+    @Bean
+    public MeterBinder nearCacheMetrics(List<NearCache<?>> caches) {
+        return registry -> caches.forEach(cache -> {
+            FunctionCounter.builder("near.cache.hits", cache, NearCache::getHits)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            FunctionCounter.builder("near.cache.misses", cache, NearCache::getMisses)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            FunctionCounter.builder("near.cache.evictions", cache, NearCache::getEvictions)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            Gauge.builder("near.cache.size", cache, NearCache::getSize)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package ru.hogwarts.school.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.SimpleStudentDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// application/x-protobuf для DTO и их коллекций по схеме proto/school.proto.
+// Классы protoc не генерируются: Jackson пишет и читает те же DTO, что и для JSON
+public class ProtobufDtoHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+    private static final String ITEMS = "items";
+
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private final Map<Class<?>, ProtobufSchema> messageSchemas = new HashMap<>();
+    private final Map<Class<?>, ProtobufSchema> listSchemas = new HashMap<>();
+
+    public ProtobufDtoHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+        String proto = loadProto();
+        register(proto, StudentDTO.class, "Student");
+        register(proto, FacultyDTO.class, "Faculty");
+        register(proto, SimpleStudentDTO.class, "SimpleStudent");
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return messageSchemas.containsKey(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return schemaFor(type) != null && canRead(mediaType);
+    }
+
+    // Коллекция без параметра типа (ResponseEntity<?>) принимается, схема выбирается по первому элементу
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        Type target = type != null ? type : clazz;
+        boolean rawCollection = target instanceof Class<?> raw && Collection.class.isAssignableFrom(raw);
+        return (schemaFor(target) != null || rawCollection) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        ProtobufSchema schema = schemaFor(type);
+        if (schema == null) {
+            throw new HttpMessageNotReadableException("No protobuf schema for " + type, inputMessage);
+        }
+        byte[] body = inputMessage.getBody().readAllBytes();
+        if (type instanceof Class<?> clazz) {
+            return mapper.readerFor(clazz).with(schema).readValue(body);
+        }
+
+        // Пустое repeated-поле на проводе отсутствует
+        JavaType itemsType = mapper.getTypeFactory().constructType(type);
+        JavaType wrapperType = mapper.getTypeFactory().constructMapType(LinkedHashMap.class,
+                mapper.constructType(String.class), itemsType);
+        Map<String, Object> wrapper = mapper.readerFor(wrapperType).with(schema).readValue(body);
+        Object items = wrapper.get(ITEMS);
+        return items != null ? items : new ArrayList<>();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        ProtobufSchema schema = schemaFor(type != null ? type : value.getClass());
+        if (schema == null && value instanceof Collection<?> items) {
+            if (items.isEmpty()) {
+                // Пустой список — сообщение без полей, то есть ноль байт
+                return;
+            }
+            schema = listSchemas.get(items.iterator().next().getClass());
+        }
+        if (schema == null) {
+            throw new HttpMessageNotWritableException("No protobuf schema for " + value.getClass().getName());
+        }
+        Object payload = value instanceof Collection<?> items ? Map.of(ITEMS, items) : value;
+        outputMessage.getBody().write(mapper.writer(schema).writeValueAsBytes(payload));
+    }
+
+    // Один элемент как <Message>List с единственным items. Склеенные такие сообщения protobuf читает
+    // как одно со всеми элементами в repeated-поле, поэтому список можно писать по элементу
+    public void writeListItem(Object item, OutputStream out) throws IOException {
+        ProtobufSchema schema = listSchemas.get(item.getClass());
+        if (schema == null) {
+            throw new HttpMessageNotWritableException("No protobuf schema for " + item.getClass().getName());
+        }
+        out.write(mapper.writer(schema).writeValueAsBytes(Map.of(ITEMS, List.of(item))));
+    }
+
+    @Nullable
+    private ProtobufSchema schemaFor(@Nullable Type type) {
+        if (type instanceof Class<?> clazz) {
+            return messageSchemas.get(clazz);
+        }
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return listSchemas.get(element);
+        }
+        return null;
+    }
+
+    private void register(String proto, Class<?> type, String message) {
+        try {
+            messageSchemas.put(type, ProtobufSchemaLoader.std.parse(proto, message));
+            listSchemas.put(type, ProtobufSchemaLoader.std.parse(proto, message + "List"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid protobuf schema for " + message, e);
+        }
+    }
+
+    private static String loadProto() {
+        try {
+            return new ClassPathResource("proto/school.proto").getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read proto/school.proto", e);
+        }
+    }
+}
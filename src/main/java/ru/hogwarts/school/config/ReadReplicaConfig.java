@@ -0,0 +1,77 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+// Два пула Hikari (primary и replica) публикуются в метриках hikaricp.* с тегом pool
+@Configuration
+@Profile("replica")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.replica.read-your-writes-ms:2000}") long readYourWritesMs) {
+        return new ReadWriteRoutingDataSource(primary, replica, Duration.ofMillis(readYourWritesMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        // Значения по умолчанию заданы явно, чтобы прокси не брал соединение при старте
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.setTargetDataSource(routingDataSource);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(ReadWriteRoutingDataSource routingDataSource) {
+        return registry -> {
+            FunctionCounter.builder("datasource.routes", routingDataSource, ReadWriteRoutingDataSource::getPrimaryRoutes)
+                    .tag("route", "primary")
+                    .register(registry);
+            FunctionCounter.builder("datasource.routes", routingDataSource, ReadWriteRoutingDataSource::getReplicaRoutes)
+                    .tag("route", "replica")
+                    .register(registry);
+            FunctionCounter.builder("datasource.pinned.reads", routingDataSource, ReadWriteRoutingDataSource::getPinnedReads)
+                    .register(registry);
+            FunctionCounter.builder("datasource.cache.loads", routingDataSource, ReadWriteRoutingDataSource::getCacheLoads)
+                    .register(registry);
+        };
+    }
+}
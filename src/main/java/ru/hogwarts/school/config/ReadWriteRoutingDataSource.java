@@ -0,0 +1,93 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.service.NearCache;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Транзакции readOnly = true уходят на реплику, остальные — на основную базу.
+// Ключ читается при первом запросе к базе, поэтому цель оборачивается в LazyConnectionDataSourceProxy.
+// Исключение — загрузки в near-cache: окно read-your-writes знает только о записях своего узла,
+// и строка, прочитанная с отстающей реплики после инвалидации от другого узла, жила бы в кэше до следующей записи
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final long readYourWritesNanos;
+    // Время последней завершённой записи на этом узле; пока реплика могла не догнать, читаем с основной базы
+    private final AtomicLong lastWriteNanos = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+    private final LongAdder cacheLoads = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites) {
+        this.readYourWritesNanos = readYourWrites.toNanos();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        if (NearCache.LOAD_TRANSACTION.equals(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            cacheLoads.increment();
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        if (System.nanoTime() - lastWriteNanos.get() < readYourWritesNanos) {
+            pinnedReads.increment();
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.increment();
+        return Route.REPLICA;
+    }
+
+    private void trackWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        lastWriteNanos.set(System.nanoTime());
+                    }
+                }
+            });
+        } else {
+            lastWriteNanos.set(System.nanoTime());
+        }
+    }
+
+    public long getPrimaryRoutes() {
+        return primaryRoutes.sum();
+    }
+
+    public long getReplicaRoutes() {
+        return replicaRoutes.sum();
+    }
+
+    public long getPinnedReads() {
+        return pinnedReads.sum();
+    }
+
+    public long getCacheLoads() {
+        return cacheLoads.sum();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.SingleFlight;
+
+import java.util.List;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<Long, Student> studentLookups() {
+        return new SingleFlight<>("student");
+    }
+
+    @Bean
+    public SingleFlight<Long, Faculty> facultyLookups() {
+        return new SingleFlight<>("faculty");
+    }
+
+    @Bean
+    public SingleFlight<Long, Avatar> avatarLookups() {
+        return new SingleFlight<>("avatar");
+    }
+
+    @Bean
+    public MeterBinder singleFlightMetrics(List<SingleFlight<?, ?>> singleFlights) {
+        return registry -> singleFlights.forEach(singleFlight -> {
+            FunctionCounter.builder("single.flight.loads", singleFlight, SingleFlight::getLoads)
+                    .tag("lookup", singleFlight.getName())
+                    .register(registry);
+            FunctionCounter.builder("single.flight.coalesced", singleFlight, SingleFlight::getCoalesced)
+                    .tag("lookup", singleFlight.getName())
+                    .register(registry);
+            Gauge.builder("single.flight.coalescing.ratio", singleFlight, SingleFlight::getCoalescingRatio)
+                    .tag("lookup", singleFlight.getName())
+                    .register(registry);
+        });
+    }
+}
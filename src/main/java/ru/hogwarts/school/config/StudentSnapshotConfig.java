@@ -0,0 +1,33 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.hogwarts.school.service.StudentSnapshotService;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableScheduling
+public class StudentSnapshotConfig {
+
+    @Bean
+    public MeterBinder studentSnapshotMetrics(StudentSnapshotService snapshotService) {
+        return registry -> {
+            Gauge.builder("student.snapshot.rows", snapshotService, StudentSnapshotService::getRows)
+                    .register(registry);
+            Gauge.builder("student.snapshot.bytes", snapshotService, StudentSnapshotService::getEstimatedBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+            TimeGauge.builder("student.snapshot.age", snapshotService, TimeUnit.MILLISECONDS,
+                            service -> service.getAge().toMillis())
+                    .register(registry);
+            TimeGauge.builder("student.snapshot.max.staleness", snapshotService, TimeUnit.MILLISECONDS,
+                            service -> service.getMaxStaleness().toMillis())
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package ru.hogwarts.school.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hogwarts.school.service.ChangeEvent;
+import ru.hogwarts.school.service.ChangeFeed;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+// Лента изменений вместо опроса /student/last и /faculty. EventSource сам переподключается
+// и присылает Last-Event-ID, поэтому разрыв по таймауту или за отставание ничего не теряет
+@RequestMapping("changes")
+@RestController
+public class ChangeFeedController {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedController.class);
+
+    private final ChangeFeed changeFeed;
+    private final long timeoutMs;
+
+    public ChangeFeedController(ChangeFeed changeFeed, @Value("${changes.feed.timeout-ms:1800000}") long timeoutMs) {
+        this.changeFeed = changeFeed;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Received request to stream changes after event id: {}", lastEventId);
+
+        Long after = parseEventId(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(after, new ChangeFeed.Sink() {
+            @Override
+            public void send(ChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.id()))
+                        .name(event.entity().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void resync(long lastEventId) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(lastEventId))
+                        .name("resync")
+                        .data(Map.of("lastEventId", lastEventId), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Last-Event-ID: " + lastEventId, e);
+        }
+    }
+}
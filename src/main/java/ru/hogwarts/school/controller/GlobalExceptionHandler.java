@@ -0,0 +1,84 @@
+package ru.hogwarts.school.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import ru.hogwarts.school.exception.AvatarNotFoundException;
+import ru.hogwarts.school.exception.AvatarProcessingException;
+import ru.hogwarts.school.exception.DatabaseBusyException;
+import ru.hogwarts.school.exception.FacultyNotFoundException;
+import ru.hogwarts.school.exception.FacultyProcessingException;
+import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.exception.StudentProcessingException;
+import ru.hogwarts.school.exception.VersionConflictException;
+
+// Ошибки запроса уровня фреймворка (битый JSON, нечисловой id, неподдерживаемый тип) отдаёт базовый класс
+// со своим статусом 4xx; сюда, в общий обработчик, они не попадают
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler({StudentNotFoundException.class, FacultyNotFoundException.class, AvatarNotFoundException.class})
+    public ResponseEntity<String> handleNotFound(RuntimeException e) {
+        logger.debug("Not found: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<String> handleConflict(VersionConflictException e) {
+        logger.debug("Conflict: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        logger.debug("Bad request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler({StudentProcessingException.class, FacultyProcessingException.class, AvatarProcessingException.class})
+    public ResponseEntity<String> handleProcessing(RuntimeException e) {
+        DatabaseBusyException busy = databaseBusy(e);
+        if (busy != null) {
+            return serviceUnavailable(busy);
+        }
+        logger.error("Processing error: {}", e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<?> handleUnexpected(Exception e) {
+        if (e instanceof ErrorResponse errorResponse) {
+            return ResponseEntity.status(errorResponse.getStatusCode()).body(errorResponse.getBody());
+        }
+        DatabaseBusyException busy = databaseBusy(e);
+        if (busy != null) {
+            return serviceUnavailable(busy);
+        }
+        logger.error("Unexpected error", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error");
+    }
+
+    // Отказ bulkhead доходит сюда завёрнутым в исключения Spring/Hibernate и *ProcessingException
+    private static DatabaseBusyException databaseBusy(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseBusyException busy) {
+                return busy;
+            }
+        }
+        return null;
+    }
+
+    private ResponseEntity<String> serviceUnavailable(DatabaseBusyException e) {
+        logger.warn("Database busy: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.config.ProtobufDtoHttpMessageConverter;
+import ru.hogwarts.school.service.RowStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Массив пишется в ответ по одному элементу: в памяти только текущая сущность, её DTO и буфер генератора.
+// CBOR и Smile идут через генератор своего формата с тем же ObjectMapper, Protobuf — склейкой
+// одноэлементных <Message>List
+final class JsonArrayResponses {
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final List<MediaType> BINARY_TYPES = List.of(
+            MediaType.APPLICATION_CBOR,
+            APPLICATION_SMILE,
+            ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF);
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+    private static final ProtobufDtoHttpMessageConverter PROTOBUF = new ProtobufDtoHttpMessageConverter();
+
+    private JsonArrayResponses() {
+    }
+
+    static <T> ResponseEntity<?> of(String accept, ObjectMapper objectMapper,
+                                    RowStream<T> rows, Function<? super T, ?> toDTO) {
+        MediaType format = negotiate(accept);
+
+        StreamingResponseBody body;
+        if (format.equals(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF)) {
+            body = out -> rows.forEach(row -> writeProtobuf(out, toDTO.apply(row)));
+        } else {
+            JsonFactory factory = format.equals(MediaType.APPLICATION_CBOR) ? CBOR_FACTORY
+                    : format.equals(APPLICATION_SMILE) ? SMILE_FACTORY
+                    : objectMapper.getFactory();
+            body = out -> {
+                try (JsonGenerator generator = factory.createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    rows.forEach(row -> write(objectMapper, generator, toDTO.apply(row)));
+                    generator.writeEndArray();
+                }
+            };
+        }
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+
+    static boolean prefersJson(String accept) {
+        return negotiate(accept).equals(MediaType.APPLICATION_JSON);
+    }
+
+    private static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType binary : BINARY_TYPES) {
+                if (type.isCompatibleWith(binary)) {
+                    return binary;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Сериализаторы ObjectMapper не зависят от формата, поэтому пишут и в генератор CBOR или Smile
+    private static void write(ObjectMapper objectMapper, JsonGenerator generator, Object dto) {
+        try {
+            objectMapper.writeValue(generator, dto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeProtobuf(OutputStream out, Object dto) {
+        try {
+            PROTOBUF.writeListItem(dto, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.NearCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Полный список факультетов сериализуется и сжимается один раз до следующей инвалидации:
+// повторные GET /faculty с gzip не трогают ни базу, ни Jackson, ни Deflater
+@Component
+public class PrecompressedFacultyListing {
+    private static final long ALL_FACULTIES = 0L;
+
+    private final NearCache<byte[]> listingCache;
+    private final FacultyService facultyService;
+    private final FacultyMapper facultyMapper;
+    private final ObjectMapper objectMapper;
+
+    public PrecompressedFacultyListing(NearCache<byte[]> listingCache, FacultyService facultyService,
+                                       FacultyMapper facultyMapper, ObjectMapper objectMapper) {
+        this.listingCache = listingCache;
+        this.facultyService = facultyService;
+        this.facultyMapper = facultyMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    public byte[] getGzippedFaculties() {
+        return listingCache.get(ALL_FACULTIES, this::render);
+    }
+
+    private byte[] render() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip)) {
+            generator.writeStartArray();
+            facultyService.streamAllFaculties().forEach(faculty -> write(generator, facultyMapper.toDTO(faculty)));
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(JsonGenerator generator, Object dto) {
+        try {
+            generator.writeObject(dto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // gzip с q=0 означает явный отказ
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("[qQ]=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
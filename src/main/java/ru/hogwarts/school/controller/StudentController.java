@@ -1,21 +1,27 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.hogwarts.school.dto.SimpleFacultyDTO;
+import ru.hogwarts.school.dto.StudentBulkRequestDTO;
 import ru.hogwarts.school.dto.StudentDTO;
-import ru.hogwarts.school.exception.StudentNotFoundException;
-import ru.hogwarts.school.exception.StudentProcessingException;
+import ru.hogwarts.school.dto.StudentPageDTO;
 import ru.hogwarts.school.mapper.FacultyMapper;
 import ru.hogwarts.school.mapper.StudentMapper;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.RosterStatistics;
+import ru.hogwarts.school.service.StudentBulkService;
+import ru.hogwarts.school.service.StudentPage;
 import ru.hogwarts.school.service.StudentService;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @RequestMapping("student")
@@ -24,58 +30,57 @@ public class StudentController {
     private static final Logger logger = LoggerFactory.getLogger(StudentController.class);
 
     private final StudentService studentService;
+    private final StudentBulkService studentBulkService;
     private final StudentMapper studentMapper;
     private final FacultyMapper facultyMapper;
+    private final ObjectMapper objectMapper;
 
-    public StudentController(StudentService studentService, StudentMapper studentMapper, FacultyMapper facultyMapper) {
+    public StudentController(StudentService studentService, StudentBulkService studentBulkService,
+                             StudentMapper studentMapper, FacultyMapper facultyMapper, ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.studentBulkService = studentBulkService;
         this.studentMapper = studentMapper;
         this.facultyMapper = facultyMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<?> createStudent(@RequestBody StudentDTO studentDTO) {
+    public ResponseEntity<StudentDTO> createStudent(@RequestBody StudentDTO studentDTO) {
         logger.info("Received request to create student: {}", studentDTO.getName());
 
-        try {
-            Student student = studentMapper.toEntity(studentDTO);
-            Student createdStudent = studentService.createStudent(student);
-            StudentDTO createdDTO = studentMapper.toDTO(createdStudent);
-            logger.info("Successfully created student with id: {}", createdStudent.getId());
-            return ResponseEntity.ok(createdDTO);
-
-        } catch (IllegalArgumentException e) {
-            logger.error("Validation error during student creation: {}", studentDTO.getName(), e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (StudentProcessingException e) {
-            logger.error("Error creating student: {}", studentDTO.getName(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating student: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error creating student: {}", studentDTO.getName(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error creating student");
-        }
+        Student student = studentMapper.toEntity(studentDTO);
+        Student createdStudent = studentService.createStudent(student);
+        StudentDTO createdDTO = studentMapper.toDTO(createdStudent);
+        logger.info("Successfully created student with id: {}", createdStudent.getId());
+        return ResponseEntity.ok(createdDTO);
+    }
+
+    @GetMapping
+    public ResponseEntity<StudentPageDTO> getStudentsPage(@RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(defaultValue = "id") String sort) {
+        logger.info("Received request to get students page after: {}, limit: {}, sort: {}", after, limit, sort);
+
+        StudentPage page = studentService.getStudentsPage(after, limit, sort);
+        List<StudentDTO> students = page.getStudents().stream()
+                .map(studentMapper::toDTO)
+                .collect(Collectors.toList());
+        logger.info("Found {} students for page", students.size());
+        return ResponseEntity.ok(new StudentPageDTO(students, page.getNextCursor()));
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<?> getStudent(@PathVariable long id) {
+    public ResponseEntity<?> getStudent(@PathVariable long id, @RequestParam(required = false) String fields) {
         logger.info("Received request to get student by id: {}", id);
 
-        try {
-            Student student = studentService.getStudentById(id);
-            StudentDTO studentDTO = studentMapper.toDTO(student);
-            logger.info("Successfully retrieved student with id: {}", id);
-            return ResponseEntity.ok(studentDTO);
-
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid student id: {}", id, e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            logger.error("Error retrieving student with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving student");
+        if (fields != null) {
+            return ResponseEntity.ok(studentService.getStudentFields(id, fields));
         }
+
+        Student student = studentService.getStudentById(id);
+        StudentDTO studentDTO = studentMapper.toDTO(student);
+        logger.info("Successfully retrieved student with id: {}", id);
+        return ResponseEntity.ok(studentDTO);
     }
 
     @GetMapping("count")
@@ -84,32 +89,20 @@ public class StudentController {
     }
 
     @GetMapping("faculty/{id}")
-    public ResponseEntity<?> getStudentFaculty(@PathVariable long id) {
+    public ResponseEntity<SimpleFacultyDTO> getStudentFaculty(@PathVariable long id) {
         logger.info("Received request to get faculty for student id: {}", id);
 
-        try {
-            Student student = studentService.getStudentById(id);
-            Faculty faculty = student.getFaculty();
-
-            if (faculty == null) {
-                logger.info("Student with id: {} has no faculty assigned", id);
-                return ResponseEntity.noContent().build();
-            }
-
-            SimpleFacultyDTO facultyDTO = facultyMapper.toSimpleDTO(faculty);
-            logger.info("Successfully retrieved faculty for student id: {}", id);
-            return ResponseEntity.ok(facultyDTO);
-
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid student id: {}", id, e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            logger.error("Error retrieving faculty for student id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving student faculty");
+        Student student = studentService.getStudentById(id);
+        Faculty faculty = student.getFaculty();
+
+        if (faculty == null) {
+            logger.info("Student with id: {} has no faculty assigned", id);
+            return ResponseEntity.noContent().build();
         }
+
+        SimpleFacultyDTO facultyDTO = facultyMapper.toSimpleDTO(faculty);
+        logger.info("Successfully retrieved faculty for student id: {}", id);
+        return ResponseEntity.ok(facultyDTO);
     }
 
     @GetMapping("age/avg")
@@ -118,51 +111,30 @@ public class StudentController {
     }
 
     @GetMapping("age/{age}")
-    public ResponseEntity<?> getStudentsByAge(@PathVariable int age) {
+    public ResponseEntity<?> getStudentsByAge(@PathVariable int age, @RequestParam(required = false) String fields,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.info("Received request to get students by age: {}", age);
 
-        try {
-            Collection<StudentDTO> students = studentService.getStudentsByAge(age)
-                    .stream()
-                    .map(studentMapper::toDTO)
-                    .collect(Collectors.toList());
-            logger.info("Found {} students with age: {}", students.size(), age);
-            return ResponseEntity.ok(students);
-
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid age parameter: {}", age, e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (StudentProcessingException e) {
-            logger.error("Error retrieving students by age: {}", age, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving students by age");
-        } catch (Exception e) {
-            logger.error("Unexpected error retrieving students by age: {}", age, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error retrieving students");
+        if (fields != null) {
+            return ResponseEntity.ok(studentService.getStudentsFieldsByAgeBetween(age, age, fields));
         }
+
+        return JsonArrayResponses.of(accept, objectMapper, studentService.streamStudentsByAge(age),
+                studentMapper::toDTO);
     }
 
     @GetMapping("agebetween/{min}-{max}")
-    public ResponseEntity<?> getStudentsByAgeBetween(@PathVariable int min, @PathVariable int max) {
+    public ResponseEntity<?> getStudentsByAgeBetween(@PathVariable int min, @PathVariable int max,
+                                                     @RequestParam(required = false) String fields,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.info("Received request to get students by age between: {} and {}", min, max);
 
-        try {
-            Collection<StudentDTO> students = studentService.getStudentsByAgeBetween(min, max)
-                    .stream()
-                    .map(studentMapper::toDTO)
-                    .collect(Collectors.toList());
-            logger.info("Found {} students with age between {} and {}", students.size(), min, max);
-            return ResponseEntity.ok(students);
-
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid age range parameters: min={}, max={}", min, max, e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (StudentProcessingException e) {
-            logger.error("Error retrieving students by age range: {} - {}", min, max, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving students by age range");
-        } catch (Exception e) {
-            logger.error("Unexpected error retrieving students by age range: {} - {}", min, max, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error retrieving students");
+        if (fields != null) {
+            return ResponseEntity.ok(studentService.getStudentsFieldsByAgeBetween(min, max, fields));
         }
+
+        return JsonArrayResponses.of(accept, objectMapper, studentService.streamStudentsByAgeBetween(min, max),
+                studentMapper::toDTO);
     }
 
     @GetMapping("last")
@@ -181,59 +153,62 @@ public class StudentController {
     }
 
     @GetMapping("optimized-sum")
-    public Integer getOptimizedSum() {
+    public Long getOptimizedSum() {
         return studentService.calculateOptimizedSum();
     }
 
+    @GetMapping("stats")
+    public ResponseEntity<RosterStatistics> getRosterStatistics() {
+        return ResponseEntity.ok(studentService.getRosterStatistics());
+    }
+
     @PutMapping()
-    public ResponseEntity<?> updateStudent(@RequestBody StudentDTO studentDTO) {
+    public ResponseEntity<StudentDTO> updateStudent(@RequestBody StudentDTO studentDTO) {
         logger.info("Received request to update student with id: {}", studentDTO.getId());
 
-        try {
-            Student student = studentMapper.toEntity(studentDTO);
-            Student updatedStudent = studentService.updateStudent(student.getId(), student);
-            StudentDTO updatedDTO = studentMapper.toDTO(updatedStudent);
-            logger.info("Successfully updated student with id: {}", studentDTO.getId());
-            return ResponseEntity.ok(updatedDTO);
-
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found for update with id: {}", studentDTO.getId(), e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("Validation error during student update with id: {}", studentDTO.getId(), e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (StudentProcessingException e) {
-            logger.error("Error updating student with id: {}", studentDTO.getId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating student: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error updating student with id: {}", studentDTO.getId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error updating student");
-        }
+        Student student = studentMapper.toEntity(studentDTO);
+        Student updatedStudent = studentService.updateStudent(student.getId(), student);
+        StudentDTO updatedDTO = studentMapper.toDTO(updatedStudent);
+        logger.info("Successfully updated student with id: {}", studentDTO.getId());
+        return ResponseEntity.ok(updatedDTO);
+    }
+
+    @PatchMapping(value = "{id}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<StudentDTO> patchStudent(@PathVariable long id, @RequestBody JsonNode patch) {
+        logger.info("Received request to patch student with id: {}", id);
+
+        Student patchedStudent = studentService.patchStudent(id, studentMapper.toPatch(patch));
+        StudentDTO patchedDTO = studentMapper.toDTO(patchedStudent);
+        logger.info("Successfully patched student with id: {}", id);
+        return ResponseEntity.ok(patchedDTO);
+    }
+
+    @PostMapping("bulk-update")
+    public ResponseEntity<StudentBulkService.BulkResult> bulkUpdateStudents(@RequestBody StudentBulkRequestDTO request) {
+        logger.info("Received request to bulk update students");
+
+        StudentBulkService.BulkResult result = studentBulkService.updateStudents(
+                studentMapper.toFilter(request), studentMapper.toBulkChange(request));
+        logger.info("Bulk updated {} students", result.affected());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("bulk-delete")
+    public ResponseEntity<StudentBulkService.BulkResult> bulkDeleteStudents(@RequestBody StudentBulkRequestDTO request) {
+        logger.info("Received request to bulk delete students");
+
+        StudentBulkService.BulkResult result = studentBulkService.deleteStudents(studentMapper.toFilter(request));
+        logger.info("Bulk deleted {} students", result.affected());
+        return ResponseEntity.ok(result);
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<?> deleteStudent(@PathVariable long id) {
+    public ResponseEntity<StudentDTO> deleteStudent(@PathVariable long id) {
         logger.info("Received request to delete student with id: {}", id);
 
-        try {
-            Student student = studentService.getStudentById(id);
-            Student deletedStudent = studentService.deleteStudent(id);
-            StudentDTO deletedDTO = studentMapper.toDTO(deletedStudent);
-            logger.info("Successfully deleted student with id: {}", id);
-            return ResponseEntity.ok(deletedDTO);
-
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found for deletion with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid student id for deletion: {}", id, e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (StudentProcessingException e) {
-            logger.error("Error deleting student with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error deleting student: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error deleting student with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error deleting student");
-        }
+        Student deletedStudent = studentService.deleteStudent(id);
+        StudentDTO deletedDTO = studentMapper.toDTO(deletedStudent);
+        logger.info("Successfully deleted student with id: {}", id);
+        return ResponseEntity.ok(deletedDTO);
     }
-}
\ No newline at end of file
+}
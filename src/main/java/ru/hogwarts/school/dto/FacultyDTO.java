@@ -7,6 +7,7 @@ public class FacultyDTO {
     private String name;
     private String color;
     private List<SimpleStudentDTO> students;
+    private Long version;
 
     public FacultyDTO() {
     }
@@ -42,6 +43,14 @@ public class FacultyDTO {
         this.color = color;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<SimpleStudentDTO> getStudents() {
         return students;
     }
@@ -0,0 +1,91 @@
+package ru.hogwarts.school.dto;
+
+public class FacultyStatsDTO {
+    private Long facultyId;
+    private String name;
+    private long studentCount;
+    private Integer minAge;
+    private Double avgAge;
+    private Integer maxAge;
+    private long avatarCount;
+    private double avatarCoverage;
+
+    public FacultyStatsDTO() {
+    }
+
+    public FacultyStatsDTO(Long facultyId, String name, long studentCount, Integer minAge, Double avgAge,
+                           Integer maxAge, long avatarCount) {
+        this.facultyId = facultyId;
+        this.name = name;
+        this.studentCount = studentCount;
+        this.minAge = minAge;
+        this.avgAge = avgAge;
+        this.maxAge = maxAge;
+        this.avatarCount = avatarCount;
+        this.avatarCoverage = studentCount == 0 ? 0.0 : (double) avatarCount / studentCount;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(long studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Double getAvgAge() {
+        return avgAge;
+    }
+
+    public void setAvgAge(Double avgAge) {
+        this.avgAge = avgAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public long getAvatarCount() {
+        return avatarCount;
+    }
+
+    public void setAvatarCount(long avatarCount) {
+        this.avatarCount = avatarCount;
+    }
+
+    public double getAvatarCoverage() {
+        return avatarCoverage;
+    }
+
+    public void setAvatarCoverage(double avatarCoverage) {
+        this.avatarCoverage = avatarCoverage;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public class StudentBulkRequestDTO {
+    private Integer minAge;
+    private Integer maxAge;
+    private Long facultyId;
+    private List<Long> ids;
+    private boolean all;
+    private Integer ageDelta;
+    private Long targetFacultyId;
+    private boolean clearFaculty;
+
+    public StudentBulkRequestDTO() {
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public void setAll(boolean all) {
+        this.all = all;
+    }
+
+    public Integer getAgeDelta() {
+        return ageDelta;
+    }
+
+    public void setAgeDelta(Integer ageDelta) {
+        this.ageDelta = ageDelta;
+    }
+
+    public Long getTargetFacultyId() {
+        return targetFacultyId;
+    }
+
+    public void setTargetFacultyId(Long targetFacultyId) {
+        this.targetFacultyId = targetFacultyId;
+    }
+
+    public boolean isClearFaculty() {
+        return clearFaculty;
+    }
+
+    public void setClearFaculty(boolean clearFaculty) {
+        this.clearFaculty = clearFaculty;
+    }
+}
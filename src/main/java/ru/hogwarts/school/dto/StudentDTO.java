@@ -5,6 +5,7 @@ public class StudentDTO {
     private String name;
     private int age;
     private SimpleFacultyDTO faculty;
+    private Long version;
 
     public StudentDTO() {
     }
@@ -40,6 +41,14 @@ public class StudentDTO {
         this.age = age;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public SimpleFacultyDTO getFaculty() {
         return faculty;
     }
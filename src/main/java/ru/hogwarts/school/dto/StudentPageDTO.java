@@ -0,0 +1,32 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public class StudentPageDTO {
+    private List<StudentDTO> students;
+    private String next;
+
+    public StudentPageDTO() {
+    }
+
+    public StudentPageDTO(List<StudentDTO> students, String next) {
+        this.students = students;
+        this.next = next;
+    }
+
+    public List<StudentDTO> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<StudentDTO> students) {
+        this.students = students;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -2,10 +2,10 @@ package ru.hogwarts.school.exception;
 
 public class AvatarNotFoundException extends RuntimeException {
     public AvatarNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public AvatarNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
-}
\ No newline at end of file
+}
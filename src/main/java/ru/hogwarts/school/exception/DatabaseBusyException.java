@@ -0,0 +1,20 @@
+package ru.hogwarts.school.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+// Bulkhead не выдал соединение за отведённое время: запрос отклоняется сразу (503), а не ждёт в очереди пула
+public class DatabaseBusyException extends SQLTransientConnectionException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+
+    public DatabaseBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    // Под перегрузкой таких отказов много, стек для них не нужен
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
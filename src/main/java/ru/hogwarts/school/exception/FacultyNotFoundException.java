@@ -2,10 +2,10 @@ package ru.hogwarts.school.exception;
 
 public class FacultyNotFoundException extends RuntimeException {
     public FacultyNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public FacultyNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
-}
\ No newline at end of file
+}
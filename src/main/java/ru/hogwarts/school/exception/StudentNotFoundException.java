@@ -1,11 +1,12 @@
 package ru.hogwarts.school.exception;
 
+// Без стека: на путь 404 приходит трафик по несуществующим id, а стек здесь ничего не сообщает
 public class StudentNotFoundException extends RuntimeException {
-  public StudentNotFoundException(String message) {
-    super(message);
-  }
+    public StudentNotFoundException(String message) {
+        super(message, null, false, false);
+    }
 
-  public StudentNotFoundException(String message, Throwable cause) {
-    super(message, cause);
-  }
-}
\ No newline at end of file
+    public StudentNotFoundException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exception;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.hogwarts.school.AvatarIo")
+@Label("Avatar I/O")
+@Category({"Hogwarts School", "Avatar"})
+@StackTrace(false)
+public class AvatarIoEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Student Id")
+    public long studentId;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
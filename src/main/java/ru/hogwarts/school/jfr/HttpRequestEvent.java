@@ -0,0 +1,22 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.hogwarts.school.HttpRequest")
+@Label("HTTP Request")
+@Category({"Hogwarts School", "Request"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    public String route;
+
+    @Label("Status")
+    public int status;
+}
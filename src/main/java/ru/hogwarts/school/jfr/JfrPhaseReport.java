@@ -0,0 +1,98 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Разбивка задержек по фазам из записи JFR: java ru.hogwarts.school.jfr.JfrPhaseReport target/school.jfr
+public class JfrPhaseReport {
+    private static final String EVENT_PREFIX = "ru.hogwarts.school.";
+
+    public static Map<String, PhaseStats> read(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            if (event.getEventType().getName().startsWith(EVENT_PREFIX)) {
+                durations.computeIfAbsent(event.getEventType().getLabel(), label -> new ArrayList<>())
+                        .add(event.getDuration().toNanos());
+            }
+        }
+
+        Map<String, PhaseStats> report = new TreeMap<>();
+        durations.forEach((phase, values) -> report.put(phase, PhaseStats.of(values)));
+        return report;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrPhaseReport <recording.jfr>");
+            return;
+        }
+        System.out.printf("%-16s %8s %12s %10s %10s %10s%n", "phase", "count", "total ms", "p50 ms", "p99 ms", "max ms");
+        read(Path.of(args[0])).forEach((phase, stats) -> System.out.printf("%-16s %8d %12.2f %10.3f %10.3f %10.3f%n",
+                phase, stats.getCount(), millis(stats.getTotal()), millis(stats.getP50()),
+                millis(stats.getP99()), millis(stats.getMax())));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    public static class PhaseStats {
+        private final int count;
+        private final Duration total;
+        private final Duration p50;
+        private final Duration p99;
+        private final Duration max;
+
+        private PhaseStats(int count, Duration total, Duration p50, Duration p99, Duration max) {
+            this.count = count;
+            this.total = total;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        static PhaseStats of(List<Long> nanos) {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new PhaseStats(sorted.length,
+                    Duration.ofNanos(Arrays.stream(sorted).sum()),
+                    Duration.ofNanos(percentile(sorted, 0.50)),
+                    Duration.ofNanos(percentile(sorted, 0.99)),
+                    Duration.ofNanos(sorted[sorted.length - 1]));
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public Duration getTotal() {
+            return total;
+        }
+
+        public Duration getP50() {
+            return p50;
+        }
+
+        public Duration getP99() {
+            return p99;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+    }
+}
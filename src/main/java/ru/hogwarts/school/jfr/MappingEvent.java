@@ -0,0 +1,22 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.hogwarts.school.Mapping")
+@Label("DTO Mapping")
+@Category({"Hogwarts School", "Mapping"})
+@StackTrace(false)
+public class MappingEvent extends Event {
+    @Label("Mapper")
+    public String mapper;
+
+    @Label("Entity Id")
+    public long entityId;
+
+    @Label("Nested Elements")
+    public int nestedElements;
+}
@@ -0,0 +1,22 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.hogwarts.school.RepositoryCall")
+@Label("Repository Call")
+@Category({"Hogwarts School", "Query"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Failed")
+    public boolean failed;
+}
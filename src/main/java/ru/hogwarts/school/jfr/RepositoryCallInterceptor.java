@@ -0,0 +1,31 @@
+package ru.hogwarts.school.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+public class RepositoryCallInterceptor implements MethodInterceptor {
+    private final String repository;
+
+    public RepositoryCallInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        try {
+            return invocation.proceed();
+        } catch (Throwable t) {
+            event.failed = true;
+            throw t;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.commit();
+            }
+        }
+    }
+}
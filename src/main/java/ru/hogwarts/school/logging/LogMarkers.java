@@ -0,0 +1,12 @@
+package ru.hogwarts.school.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+    // Повторяющаяся на каждом запросе строка "Was invoked method ..."; вне dev её прореживает SampledInfoTurboFilter
+    public static final Marker INVOCATION = MarkerFactory.getMarker("INVOCATION");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,63 @@
+package ru.hogwarts.school.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Прореживает только INFO-сообщения с маркером marker: пропускает каждое sampleRate-е на логгер
+// и не больше maxPerSecond в секунду. Остальные INFO (переподключения, итоги bulk-операций, старт)
+// и WARN и выше проходят всегда. Решение принимается до создания LoggingEvent, поэтому
+// отброшенная строка не стоит ни форматирования, ни аллокаций
+public class SampledInfoTurboFilter extends TurboFilter {
+    private final ConcurrentHashMap<String, LoggerBudget> budgets = new ConcurrentHashMap<>();
+
+    private String marker = "";
+    private int sampleRate = 1;
+    private int maxPerSecond = Integer.MAX_VALUE;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null — это проверка isInfoEnabled(), а не само сообщение
+        if (!isStarted() || level != Level.INFO || format == null || marker == null || !marker.contains(this.marker)) {
+            return FilterReply.NEUTRAL;
+        }
+        LoggerBudget budget = budgets.computeIfAbsent(logger.getName(), name -> new LoggerBudget());
+        return budget.tryAcquire(sampleRate, maxPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setMarker(String marker) {
+        this.marker = marker;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+    }
+
+    private static final class LoggerBudget {
+        private final AtomicLong seen = new AtomicLong();
+        private final AtomicLong windowSecond = new AtomicLong();
+        private final AtomicInteger inWindow = new AtomicInteger();
+
+        boolean tryAcquire(int sampleRate, int maxPerSecond) {
+            if (seen.getAndIncrement() % sampleRate != 0) {
+                return false;
+            }
+            long second = System.currentTimeMillis() / 1000;
+            long current = windowSecond.get();
+            if (current != second && windowSecond.compareAndSet(current, second)) {
+                inWindow.set(0);
+            }
+            return inWindow.incrementAndGet() <= maxPerSecond;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package ru.hogwarts.school.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.dto.SimpleFacultyDTO;
 import ru.hogwarts.school.dto.SimpleStudentDTO;
+import ru.hogwarts.school.jfr.MappingEvent;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyPatch;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -18,16 +22,27 @@ public class FacultyMapper {
             return null;
         }
 
+        MappingEvent event = new MappingEvent();
+        event.begin();
+
         FacultyDTO dto = new FacultyDTO();
         dto.setId(faculty.getId());
         dto.setName(faculty.getName());
         dto.setColor(faculty.getColor());
+        dto.setVersion(faculty.getVersion());
 
         if (faculty.getStudents() != null) {
             List<SimpleStudentDTO> studentDTOs = faculty.getStudents().stream().map(this::toSimpleStudentDTO).collect(Collectors.toList());
             dto.setStudents(studentDTOs);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.mapper = "FacultyMapper.toDTO";
+            event.entityId = faculty.getId() != null ? faculty.getId() : 0;
+            event.nestedElements = dto.getStudents() != null ? dto.getStudents().size() : 0;
+            event.commit();
+        }
         return dto;
     }
 
@@ -48,10 +63,43 @@ public class FacultyMapper {
         faculty.setId(dto.getId());
         faculty.setName(dto.getName());
         faculty.setColor(dto.getColor());
+        faculty.setVersion(dto.getVersion());
 
         return faculty;
     }
 
+    public FacultyPatch toPatch(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+
+        FacultyPatch result = new FacultyPatch();
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "name" -> result.setName(value.isNull() ? null : value.asText());
+                case "color" -> result.setColor(value.isNull() ? null : value.asText());
+                case "version" -> result.setExpectedVersion(versionOf(value));
+                case "id" -> {
+                    // id берётся из пути
+                }
+                default -> throw new IllegalArgumentException("Unsupported patch field: " + field.getKey());
+            }
+        }
+        return result;
+    }
+
+    // Для нечислового узла longValue() вернул бы 0, и вместо 400 клиент получил бы ложный 409
+    private static Long versionOf(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+            throw new IllegalArgumentException("Version must be an integer");
+        }
+        return value.longValue();
+    }
+
     private SimpleStudentDTO toSimpleStudentDTO(Student student) {
         if (student == null) {
             return null;
@@ -1,8 +1,16 @@
 package ru.hogwarts.school.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.StudentBulkRequestDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.jfr.MappingEvent;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentBulkChange;
+import ru.hogwarts.school.repository.StudentFilter;
+import ru.hogwarts.school.repository.StudentPatch;
+
+import java.util.Map;
 
 @Component
 public class StudentMapper {
@@ -18,12 +26,22 @@ public class StudentMapper {
             return null;
         }
 
+        MappingEvent event = new MappingEvent();
+        event.begin();
+
         StudentDTO dto = new StudentDTO();
         dto.setId(student.getId());
         dto.setName(student.getName());
         dto.setAge(student.getAge());
+        dto.setVersion(student.getVersion());
         dto.setFaculty(facultyMapper.toSimpleDTO(student.getFaculty()));
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.mapper = "StudentMapper.toDTO";
+            event.entityId = student.getId() != null ? student.getId() : 0;
+            event.commit();
+        }
         return dto;
     }
 
@@ -36,8 +54,85 @@ public class StudentMapper {
         student.setId(dto.getId());
         student.setName(dto.getName());
         student.setAge(dto.getAge());
+        student.setVersion(dto.getVersion());
         // Faculty устанавливается через отдельный сервис
 
         return student;
     }
-}
\ No newline at end of file
+
+    public StudentFilter toFilter(StudentBulkRequestDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        StudentFilter filter = new StudentFilter();
+        filter.setMinAge(dto.getMinAge());
+        filter.setMaxAge(dto.getMaxAge());
+        filter.setFacultyId(dto.getFacultyId());
+        filter.setIds(dto.getIds());
+        filter.setAll(dto.isAll());
+        return filter;
+    }
+
+    public StudentBulkChange toBulkChange(StudentBulkRequestDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        if (dto.isClearFaculty() && dto.getTargetFacultyId() != null) {
+            throw new IllegalArgumentException("Use either targetFacultyId or clearFaculty");
+        }
+
+        StudentBulkChange change = new StudentBulkChange();
+        change.setAgeDelta(dto.getAgeDelta());
+        if (dto.isClearFaculty() || dto.getTargetFacultyId() != null) {
+            change.setFacultyId(dto.getTargetFacultyId());
+        }
+        return change;
+    }
+
+    // JSON Merge Patch: у факультета берётся только id, "faculty": null открепляет студента
+    public StudentPatch toPatch(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+
+        StudentPatch result = new StudentPatch();
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "name" -> result.setName(value.isNull() ? null : value.asText());
+                case "age" -> {
+                    // canConvertToInt пропускает и дробные числа (17.5), поэтому сначала проверяем, что число целое
+                    if (!value.isNull() && !(value.isIntegralNumber() && value.canConvertToInt())) {
+                        throw new IllegalArgumentException("Student age must be an integer");
+                    }
+                    result.setAge(value.isNull() ? null : value.intValue());
+                }
+                case "faculty" -> {
+                    JsonNode facultyId = value.path("id");
+                    if (!value.isNull() && !(facultyId.isIntegralNumber() && facultyId.canConvertToLong())) {
+                        throw new IllegalArgumentException("Faculty must be null or contain an id");
+                    }
+                    result.setFacultyId(value.isNull() ? null : facultyId.longValue());
+                }
+                case "version" -> result.setExpectedVersion(versionOf(value));
+                case "id" -> {
+                    // id берётся из пути
+                }
+                default -> throw new IllegalArgumentException("Unsupported patch field: " + field.getKey());
+            }
+        }
+        return result;
+    }
+
+    // Для нечислового узла longValue() вернул бы 0, и вместо 400 клиент получил бы ложный 409
+    private static Long versionOf(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+            throw new IllegalArgumentException("Version must be an integer");
+        }
+        return value.longValue();
+    }
+}
@@ -13,6 +13,9 @@ public class Faculty {
     private String name;
     private String color;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "faculty")
     private Collection<Student> students;
 
@@ -48,10 +51,22 @@ public class Faculty {
         this.color = color;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Collection<Student> getStudents() {
         return students;
     }
 
+    public void setStudents(Collection<Student> students) {
+        this.students = students;
+    }
+
     @Override
     public String toString() {
         return "Факультет: \n" + id + "\n" + name + "\n" + color + "\n";
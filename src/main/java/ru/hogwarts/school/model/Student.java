@@ -13,12 +13,16 @@ public class Student {
     private String name;
     private int age;
 
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
 
-    @OneToOne(mappedBy = "student", cascade = CascadeType.ALL)
-    private Avatar avatar;
+    // Обратной связи с Avatar нет: на обратной стороне @OneToOne Hibernate грузит аватар сразу, вместе с @Lob data,
+    // и каждый студент в near-cache держал бы его в памяти. Аватар читается через AvatarRepository.findByStudentId,
+    // а удаляется вместе со студентом в том же SQL-запросе
 
     public Student() {
     }
@@ -44,14 +48,6 @@ public class Student {
         this.name = name;
     }
 
-    public Avatar getAvatar() {
-        return avatar;
-    }
-
-    public void setAvatar(Avatar avatar) {
-        this.avatar = avatar;
-    }
-
     public int getAge() {
         return age;
     }
@@ -60,6 +56,14 @@ public class Student {
         this.age = age;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Faculty getFaculty() {
         return faculty;
     }
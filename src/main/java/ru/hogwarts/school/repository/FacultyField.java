@@ -0,0 +1,49 @@
+package ru.hogwarts.school.repository;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Поля для fields=; студенты читаются вторым запросом и только если их запросили
+public enum FacultyField {
+    ID("id"),
+    NAME("name"),
+    COLOR("color"),
+    VERSION("version"),
+    STUDENTS(null);
+
+    private final String column;
+
+    FacultyField(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getProperty() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static FacultyField fromParameter(String value) {
+        try {
+            return FacultyField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported field: " + value, e);
+        }
+    }
+
+    public static Set<FacultyField> parse(String fields) {
+        EnumSet<FacultyField> result = EnumSet.noneOf(FacultyField.class);
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                result.add(fromParameter(field));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Fields cannot be empty");
+        }
+        return result;
+    }
+}
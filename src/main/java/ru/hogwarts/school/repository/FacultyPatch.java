@@ -0,0 +1,48 @@
+package ru.hogwarts.school.repository;
+
+// Изменения по JSON Merge Patch (RFC 7386): отсутствующее поле не трогаем, null — значение поля
+public class FacultyPatch {
+    private String name;
+    private boolean nameSet;
+    private String color;
+    private boolean colorSet;
+    private Long expectedVersion;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.nameSet = true;
+    }
+
+    public boolean isNameSet() {
+        return nameSet;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+        this.colorSet = true;
+    }
+
+    public boolean isColorSet() {
+        return colorSet;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+
+    public boolean isEmpty() {
+        return !nameSet && !colorSet;
+    }
+}
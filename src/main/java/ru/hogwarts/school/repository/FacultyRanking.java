@@ -0,0 +1,27 @@
+package ru.hogwarts.school.repository;
+
+import java.util.Locale;
+
+// Выражения для top-K по факультетам; у каждого есть индекс по (выражение DESC NULLS LAST, id)
+public enum FacultyRanking {
+    NAME_LENGTH("length(name)"),
+    COLOR_LENGTH("length(color)");
+
+    private final String expression;
+
+    FacultyRanking(String expression) {
+        this.expression = expression;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public static FacultyRanking fromParameter(String value) {
+        try {
+            return FacultyRanking.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported ranking: " + value, e);
+        }
+    }
+}
@@ -1,14 +1,54 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Faculty;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface FacultyRepository extends JpaRepository<Faculty, Long> {
-    Collection<Faculty> findByColorIgnoreCase(String color);
+public interface FacultyRepository extends JpaRepository<Faculty, Long>, FacultyRepositoryCustom {
+    // Derived-запросы IgnoreCase дают upper(...) = upper(?), а индексы построены по lower(...)
+    @Query("SELECT f FROM faculties f WHERE lower(f.color) = lower(:color)")
+    Collection<Faculty> findByColorIgnoreCase(@Param("color") String color);
 
-    Collection<Faculty> findByNameIgnoreCase(String name);
+    @Query("SELECT f FROM faculties f WHERE lower(f.name) = lower(:name)")
+    Collection<Faculty> findByNameIgnoreCase(@Param("name") String name);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT f FROM faculties f ORDER BY f.id")
+    Stream<Faculty> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT f FROM faculties f WHERE lower(f.color) = lower(:color) ORDER BY f.id")
+    Stream<Faculty> streamByColorIgnoreCase(@Param("color") String color);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT f FROM faculties f WHERE lower(f.name) = lower(:name) ORDER BY f.id")
+    Stream<Faculty> streamByNameIgnoreCase(@Param("name") String name);
+
+    // Для факультетов, уже загруженных в контекст, инициализирует коллекции students одним запросом
+    @Query("SELECT f FROM faculties f LEFT JOIN FETCH f.students WHERE f.id IN :ids")
+    List<Faculty> fetchStudents(@Param("ids") Collection<Long> ids);
+
+    // avatars.student_id уникален, поэтому второй LEFT JOIN не размножает строки студентов
+    @Query(value = """
+            SELECT f.id AS "facultyId", f.name AS "facultyName",
+                   COUNT(s.id) AS "studentCount",
+                   MIN(s.age) AS "minAge", AVG(s.age) AS "avgAge", MAX(s.age) AS "maxAge",
+                   COUNT(a.id) AS "avatarCount"
+            FROM faculties f
+            LEFT JOIN students s ON s.faculty_id = f.id
+            LEFT JOIN avatars a ON a.student_id = s.id
+            GROUP BY f.id, f.name
+            ORDER BY f.id
+            """, nativeQuery = true)
+    List<FacultyStatsView> getFacultyStats();
 }
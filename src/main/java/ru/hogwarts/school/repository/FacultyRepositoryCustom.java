@@ -0,0 +1,18 @@
+package ru.hogwarts.school.repository;
+
+import ru.hogwarts.school.model.Faculty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface FacultyRepositoryCustom {
+    List<Faculty> findTop(FacultyRanking ranking, int limit);
+
+    List<Map<String, Object>> findFields(Set<FacultyField> fields, Long id, String name, String color);
+
+    Optional<Faculty> updateReturning(long id, FacultyPatch patch);
+
+    Optional<Faculty> deleteReturning(long id);
+}
@@ -0,0 +1,148 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.hogwarts.school.model.Faculty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class FacultyRepositoryCustomImpl implements FacultyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ORDER BY совпадает с определением индекса буквально, иначе планировщик его не узнает
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Faculty> findTop(FacultyRanking ranking, int limit) {
+        String sql = "SELECT * FROM faculties ORDER BY " + ranking.getExpression() + " DESC NULLS LAST, id LIMIT :limit";
+        return entityManager.createNativeQuery(sql, Faculty.class)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Faculty> updateReturning(long id, FacultyPatch patch) {
+        StringBuilder set = new StringBuilder("version = version + 1");
+        if (patch.isNameSet()) {
+            set.append(", name = :name");
+        }
+        if (patch.isColorSet()) {
+            set.append(", color = :color");
+        }
+        String where = patch.getExpectedVersion() == null ? "id = :id" : "id = :id AND version = :version";
+
+        Query query = entityManager.createNativeQuery("UPDATE faculties SET " + set + " WHERE " + where
+                + " RETURNING id, name, color, version");
+        query.setParameter("id", id);
+        if (patch.isNameSet()) {
+            query.setParameter("name", patch.getName());
+        }
+        if (patch.isColorSet()) {
+            query.setParameter("color", patch.getColor());
+        }
+        if (patch.getExpectedVersion() != null) {
+            query.setParameter("version", patch.getExpectedVersion());
+        }
+        return ((List<Object[]>) query.getResultList()).stream().findFirst().map(FacultyRepositoryCustomImpl::toFaculty);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Faculty> deleteReturning(long id) {
+        Query query = entityManager.createNativeQuery("DELETE FROM faculties WHERE id = :id RETURNING id, name, color, version");
+        query.setParameter("id", id);
+        return ((List<Object[]>) query.getResultList()).stream().findFirst().map(FacultyRepositoryCustomImpl::toFaculty);
+    }
+
+    // id читается всегда — по нему подбираются студенты; сами студенты только при fields=students
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> findFields(Set<FacultyField> fields, Long id, String name, String color) {
+        StringBuilder sql = new StringBuilder("SELECT id");
+        for (FacultyField field : fields) {
+            if (field.getColumn() != null && field != FacultyField.ID) {
+                sql.append(", ").append(field.getColumn());
+            }
+        }
+        sql.append(" FROM faculties");
+        List<String> criteria = new ArrayList<>();
+        if (id != null) {
+            criteria.add("id = :id");
+        }
+        if (name != null) {
+            criteria.add("lower(name) = lower(:name)");
+        }
+        if (color != null) {
+            criteria.add("lower(color) = lower(:color)");
+        }
+        if (!criteria.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", criteria));
+        }
+        sql.append(" ORDER BY id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        if (id != null) {
+            query.setParameter("id", id);
+        }
+        if (name != null) {
+            query.setParameter("name", name);
+        }
+        if (color != null) {
+            query.setParameter("color", color);
+        }
+
+        Map<Long, Map<String, Object>> faculties = new LinkedHashMap<>();
+        for (Object row : (List<Object>) query.getResultList()) {
+            Object[] values = row instanceof Object[] columns ? columns : new Object[]{row};
+            Map<String, Object> faculty = new LinkedHashMap<>();
+            int column = 1;
+            for (FacultyField field : fields) {
+                if (field == FacultyField.ID) {
+                    faculty.put(field.getProperty(), values[0]);
+                } else if (field == FacultyField.STUDENTS) {
+                    faculty.put(field.getProperty(), new ArrayList<>());
+                } else {
+                    faculty.put(field.getProperty(), values[column++]);
+                }
+            }
+            faculties.put(((Number) values[0]).longValue(), faculty);
+        }
+        if (fields.contains(FacultyField.STUDENTS) && !faculties.isEmpty()) {
+            appendStudents(faculties);
+        }
+        return new ArrayList<>(faculties.values());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void appendStudents(Map<Long, Map<String, Object>> faculties) {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "SELECT faculty_id, id, name, age FROM students WHERE faculty_id IN (:facultyIds) ORDER BY id")
+                .setParameter("facultyIds", faculties.keySet())
+                .getResultList();
+        for (Object[] row : rows) {
+            Map<String, Object> student = new LinkedHashMap<>();
+            student.put("id", row[1]);
+            student.put("name", row[2]);
+            student.put("age", row[3]);
+            ((List<Object>) faculties.get(((Number) row[0]).longValue()).get(FacultyField.STUDENTS.getProperty()))
+                    .add(student);
+        }
+    }
+
+    private static Faculty toFaculty(Object[] row) {
+        Faculty faculty = new Faculty();
+        faculty.setId(((Number) row[0]).longValue());
+        faculty.setName((String) row[1]);
+        faculty.setColor((String) row[2]);
+        faculty.setVersion(((Number) row[3]).longValue());
+        return faculty;
+    }
+}
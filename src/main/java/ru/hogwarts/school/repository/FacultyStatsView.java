@@ -0,0 +1,17 @@
+package ru.hogwarts.school.repository;
+
+public interface FacultyStatsView {
+    Long getFacultyId();
+
+    String getFacultyName();
+
+    Long getStudentCount();
+
+    Integer getMinAge();
+
+    Double getAvgAge();
+
+    Integer getMaxAge();
+
+    Long getAvatarCount();
+}
@@ -0,0 +1,32 @@
+package ru.hogwarts.school.repository;
+
+public class StudentBulkChange {
+    private Integer ageDelta;
+    private Long facultyId;
+    private boolean facultySet;
+
+    public Integer getAgeDelta() {
+        return ageDelta;
+    }
+
+    public void setAgeDelta(Integer ageDelta) {
+        this.ageDelta = ageDelta;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+        this.facultySet = true;
+    }
+
+    public boolean isFacultySet() {
+        return facultySet;
+    }
+
+    public boolean isEmpty() {
+        return ageDelta == null && !facultySet;
+    }
+}
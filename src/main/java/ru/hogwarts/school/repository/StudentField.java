@@ -0,0 +1,49 @@
+package ru.hogwarts.school.repository;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Поля для fields=; порядок констант задаёт порядок колонок в SELECT и ключей в ответе
+public enum StudentField {
+    ID("s.id"),
+    NAME("s.name"),
+    AGE("s.age"),
+    VERSION("s.version"),
+    FACULTY("f.id, f.name, f.color");
+
+    private final String columns;
+
+    StudentField(String columns) {
+        this.columns = columns;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    public String getProperty() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static StudentField fromParameter(String value) {
+        try {
+            return StudentField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported field: " + value, e);
+        }
+    }
+
+    public static Set<StudentField> parse(String fields) {
+        EnumSet<StudentField> result = EnumSet.noneOf(StudentField.class);
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                result.add(fromParameter(field));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Fields cannot be empty");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.hogwarts.school.repository;
+
+import java.util.List;
+
+// Критерии объединяются через AND; пустой фильтр допустим только с явным all = true
+public class StudentFilter {
+    private Integer minAge;
+    private Integer maxAge;
+    private Long facultyId;
+    private List<Long> ids;
+    private boolean all;
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public void setAll(boolean all) {
+        this.all = all;
+    }
+
+    public boolean hasCriteria() {
+        return minAge != null || maxAge != null || facultyId != null || ids != null;
+    }
+}
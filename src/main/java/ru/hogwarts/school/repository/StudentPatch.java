@@ -0,0 +1,63 @@
+package ru.hogwarts.school.repository;
+
+// Изменения по JSON Merge Patch (RFC 7386): отсутствующее поле не трогаем, null — значение поля
+public class StudentPatch {
+    private String name;
+    private boolean nameSet;
+    private Integer age;
+    private boolean ageSet;
+    private Long facultyId;
+    private boolean facultySet;
+    private Long expectedVersion;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.nameSet = true;
+    }
+
+    public boolean isNameSet() {
+        return nameSet;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+        this.ageSet = true;
+    }
+
+    public boolean isAgeSet() {
+        return ageSet;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+        this.facultySet = true;
+    }
+
+    public boolean isFacultySet() {
+        return facultySet;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+
+    public boolean isEmpty() {
+        return !nameSet && !ageSet && !facultySet;
+    }
+}
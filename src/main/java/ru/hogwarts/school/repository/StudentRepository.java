@@ -1,19 +1,31 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Student;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
-    Collection<Student> findByAge(int age);
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentRepositoryCustom {
+    // Потоковые варианты: факультет приходит тем же запросом, драйвер читает курсором по 500 строк
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM students s LEFT JOIN FETCH s.faculty WHERE s.age = :age ORDER BY s.id")
+    Stream<Student> streamByAge(@Param("age") int age);
 
-    Collection<Student> findByAgeBetween(int min, int max);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM students s LEFT JOIN FETCH s.faculty WHERE s.age BETWEEN :min AND :max ORDER BY s.id")
+    Stream<Student> streamByAgeBetween(@Param("min") int min, @Param("max") int max);
 
-    Collection<Student> findByFacultyId(int facultyId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM students s JOIN FETCH s.faculty f WHERE f.id = :facultyId ORDER BY s.id")
+    Stream<Student> streamByFacultyId(@Param("facultyId") long facultyId);
 
     @Query(value = "SELECT COUNT(*) FROM students", nativeQuery = true)
     Integer getCountOfStudents();
@@ -21,6 +33,7 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     @Query(value = "SELECT AVG(age) FROM students", nativeQuery = true)
     Float getAvgAgeOfStudents();
 
-    @Query(value = "SELECT * FROM students ORDER BY id DESC LIMIT 5", nativeQuery = true)
-    Collection<Student> getLastFiveStudents();
+    // Только колонки для аналитического снимка, без сборки сущностей
+    @Query(value = "SELECT id, name, age, faculty_id FROM students ORDER BY id", nativeQuery = true)
+    List<Object[]> findSnapshotColumns();
 }
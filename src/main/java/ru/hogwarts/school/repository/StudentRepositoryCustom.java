@@ -0,0 +1,24 @@
+package ru.hogwarts.school.repository;
+
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StudentRepositoryCustom {
+    List<Student> findPage(StudentSort sort, boolean descending, Object afterKey, Long afterId, int limit);
+
+    Optional<Student> updateReturning(long id, StudentPatch patch);
+
+    Optional<Student> deleteReturning(long id);
+
+    List<Map<String, Object>> findFields(Set<StudentField> fields, StudentFilter filter);
+
+    List<Long> bulkUpdateChunk(StudentFilter filter, StudentBulkChange change, long afterId, int chunkSize);
+
+    List<Long> bulkDeleteChunk(StudentFilter filter, long afterId, int chunkSize);
+
+    void analyze();
+}
@@ -0,0 +1,257 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+    private static final String SELECT_WITH_FACULTY = "SELECT %1$s.id, %1$s.name, %1$s.age, %1$s.version, "
+            + "f.id AS faculty_id, f.name AS faculty_name, f.color, f.version AS faculty_version "
+            + "FROM %1$s LEFT JOIN faculties f ON f.id = %1$s.faculty_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Keyset-пагинация по кортежу (ключ сортировки, id): страница на любой глубине
+    // читается из индекса (column, id) без OFFSET
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Student> findPage(StudentSort sort, boolean descending, Object afterKey, Long afterId, int limit) {
+        String direction = descending ? "DESC" : "ASC";
+        String comparison = descending ? "<" : ">";
+        boolean byId = sort == StudentSort.ID;
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM students");
+        if (afterId != null) {
+            if (byId) {
+                sql.append(" WHERE id ").append(comparison).append(" :afterId");
+            } else {
+                sql.append(" WHERE (").append(sort.getColumn()).append(", id) ")
+                        .append(comparison).append(" (:afterKey, :afterId)");
+            }
+        }
+        sql.append(" ORDER BY ");
+        if (!byId) {
+            sql.append(sort.getColumn()).append(' ').append(direction).append(", ");
+        }
+        sql.append("id ").append(direction).append(" LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Student.class);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!byId) {
+                query.setParameter("afterKey", afterKey);
+            }
+        }
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+
+    // Одна команда на запись: UPDATE в CTE, факультет для ответа подтягивается тем же запросом.
+    // Строки не попадают в контекст персистентности, поэтому управляемые копии не устаревают
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Student> updateReturning(long id, StudentPatch patch) {
+        StringBuilder set = new StringBuilder("version = version + 1");
+        if (patch.isNameSet()) {
+            set.append(", name = :name");
+        }
+        if (patch.isAgeSet()) {
+            set.append(", age = :age");
+        }
+        if (patch.isFacultySet()) {
+            set.append(patch.getFacultyId() == null ? ", faculty_id = NULL" : ", faculty_id = :facultyId");
+        }
+        String where = patch.getExpectedVersion() == null ? "id = :id" : "id = :id AND version = :version";
+
+        Query query = entityManager.createNativeQuery("WITH u AS (UPDATE students SET " + set + " WHERE " + where
+                + " RETURNING id, name, age, version, faculty_id) " + SELECT_WITH_FACULTY.formatted("u"));
+        query.setParameter("id", id);
+        if (patch.isNameSet()) {
+            query.setParameter("name", patch.getName());
+        }
+        if (patch.isAgeSet()) {
+            query.setParameter("age", patch.getAge());
+        }
+        if (patch.isFacultySet() && patch.getFacultyId() != null) {
+            query.setParameter("facultyId", patch.getFacultyId());
+        }
+        if (patch.getExpectedVersion() != null) {
+            query.setParameter("version", patch.getExpectedVersion());
+        }
+        return ((List<Object[]>) query.getResultList()).stream().findFirst().map(StudentRepositoryCustomImpl::toStudent);
+    }
+
+    // Аватар удаляется в том же операторе: проверка внешнего ключа NO ACTION выполняется в конце оператора
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Student> deleteReturning(long id) {
+        Query query = entityManager.createNativeQuery("WITH a AS (DELETE FROM avatars WHERE student_id = :id), "
+                + "d AS (DELETE FROM students WHERE id = :id RETURNING id, name, age, version, faculty_id) "
+                + SELECT_WITH_FACULTY.formatted("d"));
+        query.setParameter("id", id);
+        return ((List<Object[]>) query.getResultList()).stream().findFirst().map(StudentRepositoryCustomImpl::toStudent);
+    }
+
+    private static Student toStudent(Object[] row) {
+        Student student = new Student();
+        student.setId(((Number) row[0]).longValue());
+        student.setName((String) row[1]);
+        student.setAge(((Number) row[2]).intValue());
+        student.setVersion(((Number) row[3]).longValue());
+        if (row[4] != null) {
+            Faculty faculty = new Faculty();
+            faculty.setId(((Number) row[4]).longValue());
+            faculty.setName((String) row[5]);
+            faculty.setColor((String) row[6]);
+            faculty.setVersion(((Number) row[7]).longValue());
+            student.setFaculty(faculty);
+        }
+        return student;
+    }
+
+    // В SELECT попадают только запрошенные колонки; JOIN с факультетами — только если запрошен faculty
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> findFields(Set<StudentField> fields, StudentFilter filter) {
+        List<String> columns = fields.stream().map(StudentField::getColumns).toList();
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", columns)).append(" FROM students s");
+        if (fields.contains(StudentField.FACULTY)) {
+            sql.append(" LEFT JOIN faculties f ON f.id = s.faculty_id");
+        }
+        List<String> criteria = criteria(filter, "s.");
+        if (!criteria.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", criteria));
+        }
+        sql.append(" ORDER BY s.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        bindCriteria(query, filter);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object row : (List<Object>) query.getResultList()) {
+            result.add(toFields(fields, row instanceof Object[] values ? values : new Object[]{row}));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toFields(Set<StudentField> fields, Object[] row) {
+        Map<String, Object> student = new LinkedHashMap<>();
+        int column = 0;
+        for (StudentField field : fields) {
+            if (field == StudentField.FACULTY) {
+                Map<String, Object> faculty = null;
+                if (row[column] != null) {
+                    faculty = new LinkedHashMap<>();
+                    faculty.put("id", row[column]);
+                    faculty.put("name", row[column + 1]);
+                    faculty.put("color", row[column + 2]);
+                }
+                student.put(field.getProperty(), faculty);
+                column += 3;
+            } else {
+                student.put(field.getProperty(), row[column++]);
+            }
+        }
+        return student;
+    }
+
+    // Пачка выбирается по id > afterId, поэтому строка, снова попавшая под фильтр после изменения возраста,
+    // во второй раз не обновляется
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> bulkUpdateChunk(StudentFilter filter, StudentBulkChange change, long afterId, int chunkSize) {
+        StringBuilder set = new StringBuilder("version = s.version + 1");
+        if (change.getAgeDelta() != null) {
+            set.append(", age = s.age + :ageDelta");
+        }
+        if (change.isFacultySet()) {
+            set.append(change.getFacultyId() == null ? ", faculty_id = NULL" : ", faculty_id = :targetFacultyId");
+        }
+
+        Query query = entityManager.createNativeQuery("WITH target AS (" + chunkSelect(filter) + ") "
+                + "UPDATE students s SET " + set + " FROM target WHERE s.id = target.id RETURNING s.id");
+        bindChunk(query, filter, afterId, chunkSize);
+        if (change.getAgeDelta() != null) {
+            query.setParameter("ageDelta", change.getAgeDelta());
+        }
+        if (change.isFacultySet() && change.getFacultyId() != null) {
+            query.setParameter("targetFacultyId", change.getFacultyId());
+        }
+        return toIds(query.getResultList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> bulkDeleteChunk(StudentFilter filter, long afterId, int chunkSize) {
+        Query query = entityManager.createNativeQuery("WITH target AS (" + chunkSelect(filter) + "), "
+                + "a AS (DELETE FROM avatars WHERE student_id IN (SELECT id FROM target)) "
+                + "DELETE FROM students WHERE id IN (SELECT id FROM target) RETURNING id");
+        bindChunk(query, filter, afterId, chunkSize);
+        return toIds(query.getResultList());
+    }
+
+    // После массовых изменений статистика планировщика отстаёт до следующего autovacuum
+    @Override
+    public void analyze() {
+        entityManager.createNativeQuery("ANALYZE students").executeUpdate();
+    }
+
+    private static String chunkSelect(StudentFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM students WHERE id > :afterId");
+        for (String condition : criteria(filter, "")) {
+            sql.append(" AND ").append(condition);
+        }
+        return sql.append(" ORDER BY id LIMIT :chunkSize FOR UPDATE").toString();
+    }
+
+    private static void bindChunk(Query query, StudentFilter filter, long afterId, int chunkSize) {
+        query.setParameter("afterId", afterId);
+        query.setParameter("chunkSize", chunkSize);
+        bindCriteria(query, filter);
+    }
+
+    private static List<String> criteria(StudentFilter filter, String alias) {
+        List<String> criteria = new ArrayList<>();
+        if (filter.getMinAge() != null) {
+            criteria.add(alias + "age >= :minAge");
+        }
+        if (filter.getMaxAge() != null) {
+            criteria.add(alias + "age <= :maxAge");
+        }
+        if (filter.getFacultyId() != null) {
+            criteria.add(alias + "faculty_id = :facultyId");
+        }
+        if (filter.getIds() != null) {
+            criteria.add(alias + "id IN (:ids)");
+        }
+        return criteria;
+    }
+
+    private static void bindCriteria(Query query, StudentFilter filter) {
+        if (filter.getMinAge() != null) {
+            query.setParameter("minAge", filter.getMinAge());
+        }
+        if (filter.getMaxAge() != null) {
+            query.setParameter("maxAge", filter.getMaxAge());
+        }
+        if (filter.getFacultyId() != null) {
+            query.setParameter("facultyId", filter.getFacultyId());
+        }
+        if (filter.getIds() != null) {
+            query.setParameter("ids", filter.getIds());
+        }
+    }
+
+    private static List<Long> toIds(List<Object> rows) {
+        return rows.stream().map(id -> ((Number) id).longValue()).sorted().toList();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.repository;
+
+import java.util.Locale;
+
+public enum StudentSort {
+    ID("id"),
+    NAME("name"),
+    AGE("age");
+
+    private final String column;
+
+    StudentSort(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static StudentSort fromParameter(String value) {
+        try {
+            return StudentSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort key: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.service;
+
+// Накопитель count/mean/M2 (Welford); частичные результаты сливаются формулой Чана
+final class AgeMoments {
+    long count;
+    long sum;
+    double mean;
+    double m2;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+
+    void add(int age) {
+        count++;
+        sum += age;
+        double delta = age - mean;
+        mean += delta / count;
+        m2 += delta * (age - mean);
+        min = Math.min(min, age);
+        max = Math.max(max, age);
+    }
+
+    void merge(AgeMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    double variance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AvatarMetrics {
+    private final DistributionSummary uploaded;
+    private final DistributionSummary served;
+
+    public AvatarMetrics(MeterRegistry meterRegistry) {
+        this.uploaded = DistributionSummary.builder("avatar.bytes")
+                .baseUnit("bytes")
+                .tag("direction", "uploaded")
+                .register(meterRegistry);
+        this.served = DistributionSummary.builder("avatar.bytes")
+                .baseUnit("bytes")
+                .tag("direction", "served")
+                .register(meterRegistry);
+    }
+
+    public void recordUploaded(long bytes) {
+        uploaded.record(bytes);
+    }
+
+    public void recordServed(long bytes) {
+        served.record(bytes);
+    }
+}
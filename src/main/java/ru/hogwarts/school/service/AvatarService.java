@@ -6,11 +6,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import ru.hogwarts.school.exception.AvatarNotFoundException;
 import ru.hogwarts.school.exception.AvatarProcessingException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.jfr.AvatarIoEvent;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.AvatarRepository;
@@ -22,6 +26,7 @@ import java.util.List;
 import java.util.Objects;
 
 import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static ru.hogwarts.school.logging.LogMarkers.INVOCATION;
 
 @Service
 @Transactional
@@ -30,32 +35,56 @@ public class AvatarService {
 
     private final AvatarRepository avatarRepository;
     private final StudentService studentService;
+    private final SingleFlight<Long, Avatar> avatarLookups;
+    private final AvatarMetrics avatarMetrics;
+    private final NearCache<Avatar> avatarCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate readOnlyTransaction;
     @Value("${avatars.directory.path}")
     private String avatarsDir;
 
     @Autowired
-    public AvatarService(AvatarRepository avatarRepository, StudentService studentService) {
+    public AvatarService(AvatarRepository avatarRepository, StudentService studentService,
+                         SingleFlight<Long, Avatar> avatarLookups, AvatarMetrics avatarMetrics,
+                         NearCache<Avatar> avatarCache, CacheInvalidationPublisher invalidationPublisher,
+                         ChangeFeed changeFeed, PlatformTransactionManager transactionManager) {
         this.avatarRepository = avatarRepository;
         this.studentService = studentService;
+        this.avatarLookups = avatarLookups;
+        this.avatarMetrics = avatarMetrics;
+        this.avatarCache = avatarCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.changeFeed = changeFeed;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // По имени маршрутизатор отправляет загрузку в near-cache на основную базу, а не на реплику
+        this.readOnlyTransaction.setName(NearCache.LOAD_TRANSACTION);
     }
 
+    // Кэш и single-flight вне транзакции: соединение берёт только загружающий поток
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Avatar findAvatar(long studentId) {
-        logger.info("Was invoked method for get avatar");
+        logger.info(INVOCATION, "Was invoked method for get avatar");
         try {
-            return avatarRepository.findByStudentId(studentId).orElseThrow();
+            return avatarCache.get(studentId, () -> avatarLookups.load(studentId, () -> readOnlyTransaction.execute(status ->
+                    avatarRepository.findByStudentId(studentId)
+                            .orElseThrow(() -> new AvatarNotFoundException("Avatar not found for student id: " + studentId)))));
+        } catch (AvatarNotFoundException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error finding avatar for student id: {}", studentId, e);
-            throw new AvatarNotFoundException("Error finding avatar for student id: " + studentId, e);
+            throw new AvatarProcessingException("Error finding avatar for student id: " + studentId, e);
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Avatar> getAllAvatars(Integer pageNumber, Integer pageSize) {
         PageRequest pageRequest = PageRequest.of(pageNumber - 1, pageSize);
         return avatarRepository.findAll(pageRequest).getContent();
     }
 
     public void uploadAvatar(Long studentId, MultipartFile file) throws IOException {
-        logger.info("Was invoked method for upload avatar");
+        logger.info(INVOCATION, "Was invoked method for upload avatar");
 
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
@@ -80,14 +109,23 @@ public class AvatarService {
             Files.createDirectories(filePath.getParent());
             Files.deleteIfExists(filePath);
 
+            AvatarIoEvent writeEvent = new AvatarIoEvent();
+            writeEvent.begin();
             try (InputStream is = file.getInputStream();
                  OutputStream os = Files.newOutputStream(filePath, CREATE_NEW);
                  BufferedInputStream bis = new BufferedInputStream(is, 1024);
                  BufferedOutputStream bos = new BufferedOutputStream(os, 1024)) {
-                bis.transferTo(bos);
+                writeEvent.bytes = bis.transferTo(bos);
+            }
+            writeEvent.end();
+            if (writeEvent.shouldCommit()) {
+                writeEvent.operation = "upload-file-write";
+                writeEvent.studentId = studentId;
+                writeEvent.commit();
             }
 
             Avatar avatar = avatarRepository.findByStudentId(studentId).orElseGet(Avatar::new);
+            ChangeEvent.Action action = avatar.getId() == null ? ChangeEvent.Action.CREATED : ChangeEvent.Action.UPDATED;
             avatar.setStudent(student);
             avatar.setFilePath(filePath.toString());
             avatar.setFileSize(file.getSize());
@@ -95,28 +133,26 @@ public class AvatarService {
             avatar.setData(file.getBytes());
 
             avatarRepository.save(avatar);
+            invalidationPublisher.avatarChanged(studentId);
+            changeFeed.publish(ChangeEvent.Entity.AVATAR, action, studentId);
+            avatarMetrics.recordUploaded(file.getSize());
 
-        } catch (StudentNotFoundException e) {
-            logger.error("Student not found for avatar upload: {}", studentId, e);
+        } catch (StudentNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (IOException e) {
-            logger.error("IO error during avatar upload for student id: {}", studentId, e);
             throw new AvatarProcessingException("Error processing avatar file for student id: " + studentId, e);
         } catch (Exception e) {
-            logger.error("Unexpected error during avatar upload for student id: {}", studentId, e);
             throw new AvatarProcessingException("Unexpected error during avatar upload", e);
         }
     }
 
     private String getExtension(String fileName) {
-        logger.info("Was invoked method for get extension");
         try {
             if (fileName == null || fileName.lastIndexOf(".") == -1) {
                 throw new IllegalArgumentException("File name must contain extension: " + fileName);
             }
             return fileName.substring(fileName.lastIndexOf(".") + 1);
         } catch (Exception e) {
-            logger.error("Error extracting file extension from: {}", fileName, e);
             throw new IllegalArgumentException("Invalid file name: " + fileName, e);
         }
     }
@@ -0,0 +1,157 @@
+package ru.hogwarts.school.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// Отдельное соединение вне пула: LISTEN держит его всё время работы узла
+public class CacheInvalidationListener implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration batchWindow;
+    private final List<NearCache<?>> caches;
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean running;
+    private volatile Connection connection;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public CacheInvalidationListener(String url, String username, String password, String channel,
+                                     Duration batchWindow, List<NearCache<?>> caches) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.batchWindow = batchWindow;
+        this.caches = caches;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("cache-invalidation-listener").start(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Пока соединения не было, уведомления терялись: всё, что могло устареть, сбрасываем
+                caches.forEach(NearCache::clear);
+                listening = true;
+                logger.info("Listening for cache invalidations on channel {}", channel);
+                listen(conn.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    logger.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                    sleep(RECONNECT_DELAY);
+                }
+            }
+        }
+    }
+
+    private void listen(PGConnection pgConnection) throws SQLException {
+        while (running) {
+            PGNotification[] first = pgConnection.getNotifications(1000);
+            if (first == null || first.length == 0) {
+                continue;
+            }
+
+            // Ключи за окно собираются в множество: повторные записи одной строки дают одну очистку
+            Set<String> keys = new LinkedHashSet<>();
+            collect(first, keys);
+            long deadline = System.nanoTime() + batchWindow.toNanos();
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                PGNotification[] more = pgConnection.getNotifications((int) Math.max(1, Duration.ofNanos(remaining).toMillis()));
+                if (more != null) {
+                    collect(more, keys);
+                }
+            }
+
+            apply(keys);
+        }
+    }
+
+    private void collect(PGNotification[] received, Set<String> keys) {
+        for (PGNotification notification : received) {
+            notifications.increment();
+            for (String key : notification.getParameter().split(",")) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private void apply(Set<String> keys) {
+        batches.increment();
+        // Если пришла очистка всего кэша, отдельные ключи этого кэша уже не нужны
+        Set<String> cleared = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key.endsWith(":" + CacheInvalidationPublisher.ALL)) {
+                cleared.add(key.substring(0, key.indexOf(':')));
+                CacheInvalidationPublisher.evictLocally(caches, key);
+            }
+        }
+        for (String key : keys) {
+            if (!cleared.contains(key.substring(0, Math.max(key.indexOf(':'), 0)))) {
+                CacheInvalidationPublisher.evictLocally(caches, key);
+            }
+        }
+        logger.debug("Applied {} cache invalidations", keys.size());
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        Connection current = connection;
+        if (current != null) {
+            current.close();
+        }
+        if (thread != null) {
+            thread.join(RECONNECT_DELAY.toMillis() * 2);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// pg_notify выполняется в транзакции записи: Postgres доставит уведомление только после COMMIT,
+// а при откате не доставит вовсе
+@Component
+public class CacheInvalidationPublisher {
+    public static final String ALL = "*";
+    private static final String FACULTY_LISTING = "faculty-listing:" + ALL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final List<NearCache<?>> caches;
+
+    public CacheInvalidationPublisher(JdbcTemplate jdbcTemplate, List<NearCache<?>> caches,
+                                      @Value("${cache.invalidation.channel:hogwarts_cache}") String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.caches = caches;
+        this.channel = channel;
+    }
+
+    public void studentChanged(long id) {
+        // Факультет кэшируется вместе со списком студентов, поэтому сбрасываются и факультеты
+        publish("student:" + id, "faculty:" + ALL, FACULTY_LISTING);
+    }
+
+    public void studentsChanged() {
+        publish("student:" + ALL, "faculty:" + ALL, "avatar:" + ALL, FACULTY_LISTING);
+    }
+
+    public void facultyChanged(long id) {
+        // Студент кэшируется вместе с факультетом (имя и цвет уходят в StudentDTO), поэтому сбрасываются и студенты
+        publish("faculty:" + id, "student:" + ALL, FACULTY_LISTING);
+    }
+
+    public void avatarChanged(long studentId) {
+        // Студент сбрасывается вместе с аватаром: закэшированный вид студента не переживает смену аватара
+        publish("avatar:" + studentId, "student:" + studentId);
+    }
+
+    private void publish(String... keys) {
+        // Свой узел чистим сразу; повторная очистка после COMMIT по своему же уведомлению
+        // убирает значение, которое мог положить параллельный читатель до фиксации
+        for (String key : keys) {
+            evictLocally(caches, key);
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, String.join(",", keys));
+    }
+
+    static void evictLocally(List<NearCache<?>> caches, String key) {
+        int separator = key.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        String cacheName = key.substring(0, separator);
+        String id = key.substring(separator + 1);
+        for (NearCache<?> cache : caches) {
+            if (cache.getName().equals(cacheName)) {
+                if (id.equals(ALL)) {
+                    cache.clear();
+                } else {
+                    cache.evict(Long.parseLong(id));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.hogwarts.school.service;
+
+import java.time.Instant;
+
+// id монотонно растёт в пределах процесса и уходит клиенту как id события SSE.
+// Одиночное изменение: entityId == lastEntityId, count == 1. Пачка массовой операции приходит одним событием:
+// изменены count записей с id от entityId до lastEntityId, остальные id в диапазоне могли не затрагиваться
+public record ChangeEvent(long id, Entity entity, Action action, long entityId, long lastEntityId, int count,
+                          Instant at) {
+
+    public enum Entity {
+        STUDENT, FACULTY, AVATAR
+    }
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+}
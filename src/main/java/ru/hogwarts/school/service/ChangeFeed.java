@@ -0,0 +1,211 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Пишущий поток только кладёт событие в кольцо истории и в очереди подписчиков (offer, без ожидания).
+// В сокет пишет виртуальный поток подписчика; переполненная очередь значит, что клиент не успевает,
+// и его отключают — он переподключится с Last-Event-ID и дочитает из истории
+public class ChangeFeed implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    public interface Sink {
+        void send(ChangeEvent event) throws IOException;
+
+        // Запрошенные события уже вытеснены из истории: клиенту нужно перечитать состояние целиком
+        void resync(long lastEventId) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final int historySize;
+    private final int subscriberBuffer;
+    private final Duration heartbeat;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<ChangeEvent> history;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private long lastId;
+
+    public ChangeFeed(int historySize, int subscriberBuffer, Duration heartbeat) {
+        this.historySize = historySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.heartbeat = heartbeat;
+        this.history = new ArrayDeque<>(historySize);
+    }
+
+    public void publish(ChangeEvent.Entity entity, ChangeEvent.Action action, long entityId) {
+        publish(entity, action, entityId, entityId, 1);
+    }
+
+    // Внутри транзакции событие уходит только после COMMIT: откаченная запись в ленту не попадает.
+    // Массовая операция публикует одно событие на пачку, иначе пачка переполнила бы очереди подписчиков и историю
+    public void publish(ChangeEvent.Entity entity, ChangeEvent.Action action, long firstEntityId, long lastEntityId,
+                        int count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(entity, action, firstEntityId, lastEntityId, count);
+                }
+            });
+        } else {
+            append(entity, action, firstEntityId, lastEntityId, count);
+        }
+    }
+
+    private void append(ChangeEvent.Entity entity, ChangeEvent.Action action, long firstEntityId, long lastEntityId,
+                        int count) {
+        lock.lock();
+        try {
+            ChangeEvent event = new ChangeEvent(++lastId, entity, action, firstEntityId, lastEntityId, count,
+                    Instant.now());
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(event);
+            published.increment();
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.queue.offer(event)) {
+                    drop(subscription);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lastEventId == null — только новые события; иначе сначала всё, что после него осталось в истории
+    public Subscription subscribe(Long lastEventId, Sink sink) {
+        lock.lock();
+        try {
+            Subscription subscription = new Subscription(sink, new ArrayBlockingQueue<>(subscriberBuffer));
+            if (lastEventId != null) {
+                long oldest = history.isEmpty() ? lastId + 1 : history.getFirst().id();
+                // id больше выданных — клиент пришёл из прошлой жизни процесса
+                if (lastEventId < oldest - 1 || lastEventId > lastId) {
+                    subscription.resyncFrom = oldest - 1;
+                }
+                long after = subscription.resyncFrom != null ? subscription.resyncFrom : lastEventId;
+                for (ChangeEvent event : history) {
+                    if (event.id() > after) {
+                        subscription.backlog.add(event);
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+            subscription.thread = Thread.ofVirtual().name("change-feed-subscriber").start(() -> drain(subscription));
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drop(Subscription subscription) {
+        dropped.increment();
+        subscription.dropped = true;
+        subscriptions.remove(subscription);
+        subscription.thread.interrupt();
+    }
+
+    private void drain(Subscription subscription) {
+        Sink sink = subscription.sink;
+        try {
+            if (subscription.resyncFrom != null) {
+                sink.resync(subscription.resyncFrom);
+            }
+            for (ChangeEvent event : subscription.backlog) {
+                sink.send(event);
+            }
+            subscription.backlog.clear();
+            while (!subscription.isClosed()) {
+                ChangeEvent event = subscription.queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                if (subscription.isClosed()) {
+                    break;
+                }
+                if (event == null) {
+                    sink.heartbeat();
+                } else {
+                    sink.send(event);
+                }
+            }
+        } catch (InterruptedException e) {
+            // отмена или отключение за отставание
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Change feed subscriber disconnected: {}", e.getMessage());
+        } finally {
+            subscriptions.remove(subscription);
+            Thread.interrupted();
+            if (!subscription.cancelled) {
+                sink.close();
+            }
+        }
+    }
+
+    public int getSubscribers() {
+        return subscriptions.size();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void destroy() {
+        new ArrayList<>(subscriptions).forEach(Subscription::cancel);
+    }
+
+    public final class Subscription {
+        private final Sink sink;
+        private final BlockingQueue<ChangeEvent> queue;
+        private final List<ChangeEvent> backlog = new ArrayList<>();
+        private Long resyncFrom;
+        private volatile Thread thread;
+        private volatile boolean dropped;
+        private volatile boolean cancelled;
+
+        private Subscription(Sink sink, BlockingQueue<ChangeEvent> queue) {
+            this.sink = sink;
+            this.queue = queue;
+        }
+
+        // Клиент ушёл сам: в его соединение больше не пишем
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            thread.interrupt();
+        }
+
+        public boolean isDropped() {
+            return dropped;
+        }
+
+        private boolean isClosed() {
+            return dropped || cancelled;
+        }
+    }
+}
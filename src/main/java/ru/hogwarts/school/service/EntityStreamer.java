@@ -0,0 +1,57 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// PostgreSQL читает курсором с fetch size только вне autocommit, поэтому проход идёт в read-only транзакции.
+// Строки выдаются пачками по chunkSize, после каждой пачки контекст персистентности очищается:
+// прочитанные сущности не копятся до конца ответа
+@Component
+public class EntityStreamer {
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public EntityStreamer(PlatformTransactionManager transactionManager, EntityManager entityManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+    }
+
+    public <T> RowStream<T> stream(Supplier<Stream<T>> query, int chunkSize) {
+        return stream(query, chunkSize, chunk -> {
+        });
+    }
+
+    // prefetch получает пачку до выдачи и догружает её ленивые связи одним запросом, а не запросом на строку
+    public <T> RowStream<T> stream(Supplier<Stream<T>> query, int chunkSize, Consumer<List<T>> prefetch) {
+        return action -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                List<T> chunk = new ArrayList<>(chunkSize);
+                rows.forEach(row -> {
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        emit(chunk, prefetch, action);
+                    }
+                });
+                if (!chunk.isEmpty()) {
+                    emit(chunk, prefetch, action);
+                }
+            }
+        });
+    }
+
+    private <T> void emit(List<T> chunk, Consumer<List<T>> prefetch, Consumer<? super T> action) {
+        prefetch.accept(chunk);
+        chunk.forEach(action);
+        chunk.clear();
+        entityManager.clear();
+    }
+}
@@ -1,31 +1,67 @@
 package ru.hogwarts.school.service;
 
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.FacultyProcessingException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyField;
+import ru.hogwarts.school.repository.FacultyPatch;
+import ru.hogwarts.school.repository.FacultyRanking;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.FacultyStatsView;
 
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static ru.hogwarts.school.logging.LogMarkers.INVOCATION;
+
 @Service
 public class FacultyService {
     Logger logger = LoggerFactory.getLogger(FacultyService.class);
 
+    private static final int MAX_TOP_LIMIT = 100;
+    // Студенты пачки догружаются одним запросом; размер пачки совпадает с fetch size курсора
+    private static final int STREAM_CHUNK_SIZE = 100;
+
     private final FacultyRepository facultyRepository;
+    private final SingleFlight<Long, Faculty> facultyLookups;
+    private final NearCache<Faculty> facultyCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final EntityStreamer entityStreamer;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
-    public FacultyService(FacultyRepository facultyRepository) {
+    public FacultyService(FacultyRepository facultyRepository, SingleFlight<Long, Faculty> facultyLookups,
+                          NearCache<Faculty> facultyCache, CacheInvalidationPublisher invalidationPublisher,
+                          EntityStreamer entityStreamer, ChangeFeed changeFeed,
+                          PlatformTransactionManager transactionManager) {
         this.facultyRepository = facultyRepository;
+        this.facultyLookups = facultyLookups;
+        this.facultyCache = facultyCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.entityStreamer = entityStreamer;
+        this.changeFeed = changeFeed;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // По имени маршрутизатор отправляет загрузку в near-cache на основную базу, а не на реплику
+        this.readOnlyTransaction.setName(NearCache.LOAD_TRANSACTION);
     }
 
+    @Transactional
     public Faculty createFaculty(Faculty faculty) {
-        logger.info("Was invoked method for create faculty");
+        logger.info(INVOCATION, "Was invoked method for create faculty");
         try {
             if (faculty == null) {
                 throw new IllegalArgumentException("Faculty cannot be null");
@@ -37,134 +73,236 @@ public class FacultyService {
                 throw new IllegalArgumentException("Faculty color cannot be null or empty");
             }
 
-            return facultyRepository.save(faculty);
+            Faculty created = facultyRepository.save(faculty);
+            invalidationPublisher.facultyChanged(created.getId());
+            changeFeed.publish(ChangeEvent.Entity.FACULTY, ChangeEvent.Action.CREATED, created.getId());
+            return created;
         } catch (IllegalArgumentException e) {
-            logger.error("Validation error during faculty creation", e);
             throw e;
         } catch (Exception e) {
-            logger.error("Error creating faculty", e);
             throw new FacultyProcessingException("Error creating faculty", e);
         }
     }
 
+    // Кэш и single-flight вне транзакции: соединение берёт только загружающий поток
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Faculty getFacultyById(long id) {
-        logger.info("Was invoked method for get faculty by id");
+        logger.info(INVOCATION, "Was invoked method for get faculty by id");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid faculty id: " + id);
             }
 
-            return facultyRepository.findById(id)
-                    .orElseThrow(() -> new FacultyNotFoundException("Faculty not found with id: " + id));
-        } catch (FacultyNotFoundException e) {
-            logger.warn("Faculty not found with id: {}", id);
-            throw e;
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid faculty id: {}", id, e);
+            return facultyCache.get(id, () -> facultyLookups.load(id, () -> readOnlyTransaction.execute(status -> {
+                Faculty faculty = facultyRepository.findById(id)
+                        .orElseThrow(() -> new FacultyNotFoundException("Faculty not found with id: " + id));
+                // Результат делят несколько потоков: ленивый список студентов грузим здесь,
+                // пока сессия загрузившего потока открыта
+                Hibernate.initialize(faculty.getStudents());
+                return faculty;
+            })));
+        } catch (FacultyNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving faculty with id: {}", id, e);
             throw new FacultyProcessingException("Error retrieving faculty with id: " + id, e);
         }
     }
 
-    public Faculty updateFaculty(long id, Faculty faculty) {
-        logger.info("Was invoked method for update faculty");
+    // Только existsById: список студентов не загружается и в near-кэш ничего не кладётся
+    @Transactional(readOnly = true)
+    public void ensureFacultyExists(long id) {
+        logger.info(INVOCATION, "Was invoked method for check faculty exists");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid faculty id: " + id);
             }
-            if (faculty == null) {
-                throw new IllegalArgumentException("Faculty cannot be null");
-            }
-
             if (!facultyRepository.existsById(id)) {
                 throw new FacultyNotFoundException("Faculty not found with id: " + id);
             }
-
-            faculty.setId(id);
-            return facultyRepository.save(faculty);
         } catch (FacultyNotFoundException | IllegalArgumentException e) {
-            logger.error("Error during faculty update for id: {}", id, e);
             throw e;
         } catch (Exception e) {
-            logger.error("Unexpected error during faculty update for id: {}", id, e);
+            throw new FacultyProcessingException("Error checking faculty with id: " + id, e);
+        }
+    }
+
+    @Transactional
+    public Faculty updateFaculty(long id, Faculty faculty) {
+        logger.info(INVOCATION, "Was invoked method for update faculty");
+        if (faculty == null) {
+            throw new IllegalArgumentException("Faculty cannot be null");
+        }
+
+        FacultyPatch patch = new FacultyPatch();
+        patch.setName(faculty.getName());
+        patch.setColor(faculty.getColor());
+        patch.setExpectedVersion(faculty.getVersion());
+        return patchFaculty(id, patch);
+    }
+
+    @Transactional
+    public Faculty patchFaculty(long id, FacultyPatch patch) {
+        logger.info(INVOCATION, "Was invoked method for patch faculty");
+        try {
+            if (id <= 0) {
+                throw new IllegalArgumentException("Invalid faculty id: " + id);
+            }
+            if (patch == null) {
+                throw new IllegalArgumentException("Patch cannot be null");
+            }
+            if (patch.isNameSet() && (patch.getName() == null || patch.getName().trim().isEmpty())) {
+                throw new IllegalArgumentException("Faculty name cannot be null or empty");
+            }
+            if (patch.isColorSet() && (patch.getColor() == null || patch.getColor().trim().isEmpty())) {
+                throw new IllegalArgumentException("Faculty color cannot be null or empty");
+            }
+            if (patch.isEmpty()) {
+                return getFacultyById(id);
+            }
+
+            Faculty patched = facultyRepository.updateReturning(id, patch)
+                    .orElseThrow(() -> missingOrConflict(id, patch.getExpectedVersion()));
+            invalidationPublisher.facultyChanged(id);
+            changeFeed.publish(ChangeEvent.Entity.FACULTY, ChangeEvent.Action.UPDATED, id);
+            return patched;
+        } catch (FacultyNotFoundException | VersionConflictException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
             throw new FacultyProcessingException("Error updating faculty with id: " + id, e);
         }
     }
 
+    @Transactional
     public Faculty deleteFaculty(long id) {
-        logger.info("Was invoked method for delete faculty");
+        logger.info(INVOCATION, "Was invoked method for delete faculty");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid faculty id: " + id);
             }
 
-            Faculty faculty = facultyRepository.findById(id)
+            Faculty deleted = facultyRepository.deleteReturning(id)
                     .orElseThrow(() -> new FacultyNotFoundException("Faculty not found with id: " + id));
-
-            facultyRepository.deleteById(id);
-            return faculty;
-        } catch (FacultyNotFoundException e) {
-            logger.warn("Faculty not found for deletion with id: {}", id);
-            throw e;
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid faculty id for deletion: {}", id, e);
+            invalidationPublisher.facultyChanged(id);
+            changeFeed.publish(ChangeEvent.Entity.FACULTY, ChangeEvent.Action.DELETED, id);
+            return deleted;
+        } catch (FacultyNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error deleting faculty with id: {}", id, e);
             throw new FacultyProcessingException("Error deleting faculty with id: " + id, e);
         }
     }
 
+    private RuntimeException missingOrConflict(long id, Long expectedVersion) {
+        if (expectedVersion != null && facultyRepository.existsById(id)) {
+            return new VersionConflictException("Faculty " + id + " was modified, expected version " + expectedVersion);
+        }
+        return new FacultyNotFoundException("Faculty not found with id: " + id);
+    }
+
+    @Transactional(readOnly = true)
     public Collection<Faculty> getAllFaculties() {
-        logger.info("Was invoked method for get all faculties");
+        logger.info(INVOCATION, "Was invoked method for get all faculties");
         try {
             return facultyRepository.findAll();
         } catch (Exception e) {
-            logger.error("Error retrieving all faculties", e);
             throw new FacultyProcessingException("Error retrieving all faculties", e);
         }
     }
 
-    public Collection<Faculty> getFacultiesByColor(String color) {
-        logger.info("Was invoked method for get faculties by color");
+    public RowStream<Faculty> streamAllFaculties() {
+        logger.info(INVOCATION, "Was invoked method for stream all faculties");
+        return entityStreamer.stream(facultyRepository::streamAll, STREAM_CHUNK_SIZE, this::fetchStudents);
+    }
+
+    public RowStream<Faculty> streamFacultiesByColor(String color) {
+        logger.info(INVOCATION, "Was invoked method for stream faculties by color");
+        if (color == null || color.trim().isEmpty()) {
+            throw new IllegalArgumentException("Color cannot be null or empty");
+        }
+        return entityStreamer.stream(() -> facultyRepository.streamByColorIgnoreCase(color), STREAM_CHUNK_SIZE,
+                this::fetchStudents);
+    }
+
+    public RowStream<Faculty> streamFacultiesByName(String name) {
+        logger.info(INVOCATION, "Was invoked method for stream faculties by name");
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+        return entityStreamer.stream(() -> facultyRepository.streamByNameIgnoreCase(name), STREAM_CHUNK_SIZE,
+                this::fetchStudents);
+    }
+
+    // Mapper читает students у каждого факультета: без догрузки это отдельный запрос на строку
+    private void fetchStudents(List<Faculty> faculties) {
+        facultyRepository.fetchStudents(faculties.stream().map(Faculty::getId).toList());
+    }
+
+    // Проекция fields= идёт мимо near-кэша: кэшируются только полные сущности
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFacultyFields(long id, String fields) {
+        logger.info(INVOCATION, "Was invoked method for get faculty fields");
         try {
-            if (color == null || color.trim().isEmpty()) {
-                throw new IllegalArgumentException("Color cannot be null or empty");
+            if (id <= 0) {
+                throw new IllegalArgumentException("Invalid faculty id: " + id);
             }
-
-            return facultyRepository.findByColorIgnoreCase(color);
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid color parameter: {}", color, e);
+            return facultyRepository.findFields(FacultyField.parse(fields), id, null, null).stream().findFirst()
+                    .orElseThrow(() -> new FacultyNotFoundException("Faculty not found with id: " + id));
+        } catch (FacultyNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving faculties by color: {}", color, e);
-            throw new FacultyProcessingException("Error retrieving faculties by color: " + color, e);
+            throw new FacultyProcessingException("Error retrieving faculty fields with id: " + id, e);
         }
     }
 
-    public Collection<Faculty> getFacultiesByName(String name) {
-        logger.info("Was invoked method for get faculties by name");
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getFacultiesFields(String name, String color, String fields) {
+        logger.info(INVOCATION, "Was invoked method for get faculties fields");
         try {
-            if (name == null || name.trim().isEmpty()) {
-                throw new IllegalArgumentException("Name cannot be null or empty");
-            }
-
-            return facultyRepository.findByNameIgnoreCase(name);
+            String nameFilter = name == null || name.isBlank() ? null : name;
+            String colorFilter = nameFilter != null || color == null || color.isBlank() ? null : color;
+            return facultyRepository.findFields(FacultyField.parse(fields), null, nameFilter, colorFilter);
         } catch (IllegalArgumentException e) {
-            logger.error("Invalid name parameter: {}", name, e);
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving faculties by name: {}", name, e);
-            throw new FacultyProcessingException("Error retrieving faculties by name: " + name, e);
+            throw new FacultyProcessingException("Error retrieving faculties fields", e);
         }
     }
 
+    @Transactional(readOnly = true)
+    public List<FacultyStatsView> getFacultyStats() {
+        logger.info(INVOCATION, "Was invoked method for get faculty stats");
+        try {
+            return facultyRepository.getFacultyStats();
+        } catch (Exception e) {
+            throw new FacultyProcessingException("Error retrieving faculty stats", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public String getLongestFacultyName() {
-        return facultyRepository.findAll().stream()
+        logger.info(INVOCATION, "Was invoked method for get longest faculty name");
+        return getTopFaculties(FacultyRanking.NAME_LENGTH.name(), 1).stream()
                 .map(Faculty::getName)
-                .max(Comparator.comparingInt(String::length))
+                .findFirst()
                 .orElse("");
     }
+
+    @Transactional(readOnly = true)
+    public List<Faculty> getTopFaculties(String ranking, int limit) {
+        logger.info(INVOCATION, "Was invoked method for get top faculties");
+        try {
+            if (limit <= 0 || limit > MAX_TOP_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP_LIMIT);
+            }
+            if (ranking == null || ranking.isBlank()) {
+                throw new IllegalArgumentException("Ranking cannot be null or empty");
+            }
+
+            return facultyRepository.findTop(FacultyRanking.fromParameter(ranking), limit);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new FacultyProcessingException("Error retrieving top faculties by " + ranking, e);
+        }
+    }
 }
\ No newline at end of file
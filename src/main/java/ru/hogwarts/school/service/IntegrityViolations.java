@@ -0,0 +1,22 @@
+package ru.hogwarts.school.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Имя внешнего ключа students.faculty_id закреплено в changelog (studentsNameFacultyForeignKey.sql)
+final class IntegrityViolations {
+    static final String FACULTY_FOREIGN_KEY = "fk_students_faculty";
+
+    private IntegrityViolations() {
+    }
+
+    // Несуществующий факультет — только нарушение этого ключа; имя ограничения Hibernate берёт из ответа Postgres
+    static boolean isMissingFaculty(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return FACULTY_FOREIGN_KEY.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+}
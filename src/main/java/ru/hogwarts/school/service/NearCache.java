@@ -0,0 +1,147 @@
+package ru.hogwarts.school.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Локальная копия записей по id; устаревает только до прихода инвалидации от узла, выполнившего запись,
+// или до истечения ttl, если он задан. Записи разложены по сегментам: в каждом свой LRU-порядок,
+// своя блокировка и своё поколение инвалидаций
+public class NearCache<V> {
+    // Имя read-only транзакции, в которой загрузчик читает значение для кэша
+    public static final String LOAD_TRANSACTION = "near-cache-load";
+    private static final int MAX_SEGMENTS = 16;
+
+    private final String name;
+    private final long ttlNanos;
+    private final Segment<V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public NearCache(String name, int maxSize) {
+        this(name, maxSize, Duration.ZERO);
+    }
+
+    // ttl = 0 — записи живут до инвалидации или вытеснения
+    @SuppressWarnings("unchecked")
+    public NearCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize)));
+        int capacity = Math.max(1, (maxSize + count - 1) / count);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(capacity, evictions);
+        }
+    }
+
+    public V get(long key, Supplier<V> loader) {
+        Segment<V> segment = segmentFor(key);
+        long generation;
+        synchronized (segment) {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.entries.remove(key);
+                evictions.increment();
+            }
+            generation = segment.generation;
+        }
+
+        misses.increment();
+        V loaded = loader.get();
+        if (loaded != null) {
+            synchronized (segment) {
+                // Инвалидация ключа этого сегмента за время загрузки: загруженное значение могло устареть
+                if (segment.generation == generation) {
+                    long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+                    segment.entries.put(key, new Entry<>(loaded, expiresAt));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void evict(long key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            if (segment.entries.remove(key) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                evictions.add(segment.entries.size());
+                segment.entries.clear();
+            }
+        }
+    }
+
+    private Segment<V> segmentFor(long key) {
+        int hash = Long.hashCode(key);
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Segment<V> {
+        // Порядок доступа: при переполнении вытесняется давно не читанная запись
+        final LinkedHashMap<Long, Entry<V>> entries;
+        // Растёт при каждой инвалидации ключа сегмента: значение, загруженное до неё, в кэш не кладём
+        long generation;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired() {
+            return expiresAt != 0 && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
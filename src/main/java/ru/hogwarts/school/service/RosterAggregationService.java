@@ -0,0 +1,120 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.LongStream;
+
+// Параллельные агрегаты по колонкам студентов: массивы делятся пополам до порога, листья считаются последовательно
+@Service
+public class RosterAggregationService {
+    static final int LEAF_SIZE = 16_384;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+
+    public RosterAggregationService(@Value("${analytics.parallelism:0}") int parallelism) {
+        this.ownPool = parallelism > 0;
+        this.pool = ownPool ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+    }
+
+    // ages[i] и facultyIds[i] относятся к одному студенту; группы byFaculty — по значениям facultyIds как есть
+    public RosterStatistics aggregate(int[] ages, int[] facultyIds) {
+        if (ages.length != facultyIds.length) {
+            throw new IllegalArgumentException("Column lengths differ: " + ages.length + " != " + facultyIds.length);
+        }
+
+        Partial total = pool.invoke(new AggregateTask(ages, facultyIds, 0, ages.length));
+
+        Map<Long, RosterStatistics.FacultyAgeStatistics> byFaculty = new TreeMap<>();
+        total.groups.forEach((facultyId, moments) -> byFaculty.put(facultyId.longValue(),
+                new RosterStatistics.FacultyAgeStatistics(moments.count, moments.mean, moments.variance(),
+                        moments.min, moments.max)));
+
+        AgeMoments all = total.moments;
+        boolean empty = all.count == 0;
+        return new RosterStatistics(all.count, all.sum, all.mean, all.variance(),
+                empty ? null : all.min, empty ? null : all.max, percentiles(ages), byFaculty, null);
+    }
+
+    // rangeClosed делится точно, в отличие от iterate(...).limit(...), который упирается в последовательный limit
+    public long sumRange(int fromInclusive, int toInclusive) {
+        return pool.submit(() -> LongStream.rangeClosed(fromInclusive, toInclusive).parallel().sum())
+                .join();
+    }
+
+    private Map<String, Integer> percentiles(int[] ages) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (ages.length == 0) {
+            return result;
+        }
+        int[] sorted = ages.clone();
+        pool.submit(() -> Arrays.parallelSort(sorted)).join();
+        for (double p : PERCENTILES) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            result.put("p" + Math.round(p * 100), sorted[Math.max(index, 0)]);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownPool) {
+            pool.shutdown();
+        }
+    }
+
+    private static final class Partial {
+        final AgeMoments moments = new AgeMoments();
+        final Map<Integer, AgeMoments> groups = new HashMap<>();
+
+        Partial merge(Partial other) {
+            moments.merge(other.moments);
+            other.groups.forEach((facultyId, moments) -> groups.merge(facultyId, moments, (a, b) -> {
+                a.merge(b);
+                return a;
+            }));
+            return this;
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<Partial> {
+        private final int[] ages;
+        private final int[] facultyIds;
+        private final int from;
+        private final int to;
+
+        AggregateTask(int[] ages, int[] facultyIds, int from, int to) {
+            this.ages = ages;
+            this.facultyIds = facultyIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= LEAF_SIZE) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    partial.moments.add(ages[i]);
+                    partial.groups.computeIfAbsent(facultyIds[i], id -> new AgeMoments()).add(ages[i]);
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(ages, facultyIds, from, middle);
+            left.fork();
+            Partial right = new AggregateTask(ages, facultyIds, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
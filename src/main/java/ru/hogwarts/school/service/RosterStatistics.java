@@ -0,0 +1,17 @@
+package ru.hogwarts.school.service;
+
+import java.util.Map;
+
+public record RosterStatistics(long count,
+                               long sum,
+                               double mean,
+                               double variance,
+                               Integer min,
+                               Integer max,
+                               Map<String, Integer> percentiles,
+                               Map<Long, FacultyAgeStatistics> byFaculty,
+                               FacultyAgeStatistics withoutFaculty) {
+
+    public record FacultyAgeStatistics(long count, double mean, double variance, int min, int max) {
+    }
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.service;
+
+import java.util.function.Consumer;
+
+// Строки для потоковой выдачи: аргументы проверены при создании, запрос выполняется только в forEach
+@FunctionalInterface
+public interface RowStream<T> {
+
+    void forEach(Consumer<? super T> action);
+}
@@ -0,0 +1,137 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.exception.FacultyNotFoundException;
+import ru.hogwarts.school.exception.StudentProcessingException;
+import ru.hogwarts.school.repository.StudentBulkChange;
+import ru.hogwarts.school.repository.StudentFilter;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static ru.hogwarts.school.logging.LogMarkers.INVOCATION;
+
+// Каждая пачка — отдельная короткая транзакция: блокировки строк не копятся на всю операцию,
+// а при сбое уже применённые пачки остаются применёнными (результат сообщает, сколько успело пройти)
+@Service
+public class StudentBulkService {
+    Logger logger = LoggerFactory.getLogger(StudentBulkService.class);
+
+    private final StudentRepository studentRepository;
+    private final StudentSnapshotService snapshotService;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long analyzeThreshold;
+
+    public StudentBulkService(StudentRepository studentRepository, StudentSnapshotService snapshotService,
+                              CacheInvalidationPublisher invalidationPublisher, ChangeFeed changeFeed,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${students.bulk.chunk-size:1000}") int chunkSize,
+                              @Value("${students.bulk.analyze-threshold:10000}") long analyzeThreshold) {
+        this.studentRepository = studentRepository;
+        this.snapshotService = snapshotService;
+        this.invalidationPublisher = invalidationPublisher;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.analyzeThreshold = analyzeThreshold;
+    }
+
+    public BulkResult updateStudents(StudentFilter filter, StudentBulkChange change) {
+        logger.info(INVOCATION, "Was invoked method for bulk update students");
+        validate(filter);
+        if (change == null || change.isEmpty()) {
+            throw new IllegalArgumentException("Bulk update must change age or faculty");
+        }
+        if (change.isFacultySet() && change.getFacultyId() != null && change.getFacultyId() <= 0) {
+            throw new IllegalArgumentException("Invalid faculty id: " + change.getFacultyId());
+        }
+
+        try {
+            return run(afterId -> studentRepository.bulkUpdateChunk(filter, change, afterId, chunkSize),
+                    ChangeEvent.Action.UPDATED);
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.isMissingFaculty(e)) {
+                throw new FacultyNotFoundException("Faculty not found with id: " + change.getFacultyId(), e);
+            }
+            throw new StudentProcessingException("Bulk update failed", e);
+        }
+    }
+
+    public BulkResult deleteStudents(StudentFilter filter) {
+        logger.info(INVOCATION, "Was invoked method for bulk delete students");
+        validate(filter);
+        return run(afterId -> studentRepository.bulkDeleteChunk(filter, afterId, chunkSize), ChangeEvent.Action.DELETED);
+    }
+
+    private BulkResult run(LongFunction<List<Long>> chunk, ChangeEvent.Action action) {
+        long affected = 0;
+        int chunks = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                // Пачка может содержать тысячи id, а полезная нагрузка NOTIFY ограничена 8000 байт,
+                // поэтому узлам уходит сброс кэшей целиком
+                List<Long> ids = transactionTemplate.execute(status -> {
+                    List<Long> changed = chunk.apply(from);
+                    if (!changed.isEmpty()) {
+                        invalidationPublisher.studentsChanged();
+                        // В ленту — одно событие на пачку: по событию на студента тысячи строк переполняли
+                        // очереди подписчиков и вытесняли историю, и все клиенты уходили на resync
+                        changeFeed.publish(ChangeEvent.Entity.STUDENT, action,
+                                changed.get(0), changed.get(changed.size() - 1), changed.size());
+                    }
+                    return changed;
+                });
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                affected += ids.size();
+                chunks++;
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new StudentProcessingException("Bulk operation failed after " + affected + " students", e);
+        } finally {
+            if (affected > 0) {
+                snapshotService.invalidate();
+            }
+        }
+
+        if (affected >= analyzeThreshold) {
+            transactionTemplate.executeWithoutResult(status -> studentRepository.analyze());
+        }
+        logger.info("Bulk operation affected {} students in {} chunks", affected, chunks);
+        return new BulkResult(affected, chunks);
+    }
+
+    private void validate(StudentFilter filter) {
+        if (filter == null || (!filter.hasCriteria() && !filter.isAll())) {
+            throw new IllegalArgumentException("Filter must have criteria or set all = true");
+        }
+        if (filter.getIds() != null && filter.getIds().isEmpty()) {
+            throw new IllegalArgumentException("Id list cannot be empty");
+        }
+        if (filter.getMinAge() != null && filter.getMaxAge() != null && filter.getMinAge() > filter.getMaxAge()) {
+            throw new IllegalArgumentException("Min age cannot be greater than max age");
+        }
+    }
+
+    public record BulkResult(long affected, int chunks) {
+    }
+}
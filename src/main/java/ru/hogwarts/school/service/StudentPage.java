@@ -0,0 +1,23 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+
+public class StudentPage {
+    private final List<Student> students;
+    private final String nextCursor;
+
+    public StudentPage(List<Student> students, String nextCursor) {
+        this.students = students;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -3,17 +3,32 @@ package ru.hogwarts.school.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
 import ru.hogwarts.school.exception.StudentProcessingException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentField;
+import ru.hogwarts.school.repository.StudentFilter;
+import ru.hogwarts.school.repository.StudentPatch;
 import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.repository.StudentSort;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collection;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+
+import static ru.hogwarts.school.logging.LogMarkers.INVOCATION;
 
 
 @Service
@@ -21,15 +36,41 @@ import java.util.stream.IntStream;
 public class StudentService {
     Logger logger = LoggerFactory.getLogger(StudentService.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int STREAM_CLEAR_EVERY = 500;
+
     private final StudentRepository studentRepository;
+    private final SingleFlight<Long, Student> studentLookups;
+    private final RosterAggregationService rosterAggregationService;
+    private final StudentSnapshotService snapshotService;
+    private final NearCache<Student> studentCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final EntityStreamer entityStreamer;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
-    public StudentService(StudentRepository studentRepository) {
+    public StudentService(StudentRepository studentRepository, SingleFlight<Long, Student> studentLookups,
+                          RosterAggregationService rosterAggregationService, StudentSnapshotService snapshotService,
+                          NearCache<Student> studentCache, CacheInvalidationPublisher invalidationPublisher,
+                          EntityStreamer entityStreamer, ChangeFeed changeFeed,
+                          PlatformTransactionManager transactionManager) {
         this.studentRepository = studentRepository;
+        this.studentLookups = studentLookups;
+        this.rosterAggregationService = rosterAggregationService;
+        this.snapshotService = snapshotService;
+        this.studentCache = studentCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.entityStreamer = entityStreamer;
+        this.changeFeed = changeFeed;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // По имени маршрутизатор отправляет загрузку в near-cache на основную базу, а не на реплику
+        this.readOnlyTransaction.setName(NearCache.LOAD_TRANSACTION);
     }
 
     public Student createStudent(Student student) {
-        logger.info("Was invoked method for create student entity");
+        logger.info(INVOCATION, "Was invoked method for create student entity");
         try {
             if (student == null) {
                 throw new IllegalArgumentException("Student cannot be null");
@@ -41,105 +82,171 @@ public class StudentService {
                 throw new IllegalArgumentException("Student age must be positive");
             }
 
-            return studentRepository.save(student);
+            Student created = studentRepository.save(student);
+            invalidationPublisher.studentChanged(created.getId());
+            changeFeed.publish(ChangeEvent.Entity.STUDENT, ChangeEvent.Action.CREATED, created.getId());
+            return created;
         } catch (IllegalArgumentException e) {
-            logger.error("Validation error during student creation", e);
             throw e;
         } catch (Exception e) {
-            logger.error("Error creating student", e);
             throw new StudentProcessingException("Error creating student", e);
         }
     }
 
+    // Кэш и single-flight вне транзакции: ожидающие потоки не держат соединение из пула,
+    // транзакцию открывает только поток, который действительно идёт в базу
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Student getStudentById(long id) {
-        logger.info("Was invoked method for get student by id");
+        logger.info(INVOCATION, "Was invoked method for get student by id");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid student id: " + id);
             }
 
-            return studentRepository.findById(id)
-                    .orElseThrow(() -> new StudentNotFoundException("Student not found with id: " + id));
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found with id: {}", id);
-            throw e;
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid student id: {}", id, e);
+            return studentCache.get(id, () -> studentLookups.load(id, () -> readOnlyTransaction.execute(status ->
+                    studentRepository.findById(id)
+                            .orElseThrow(() -> new StudentNotFoundException("Student not found with id: " + id)))));
+        } catch (StudentNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving student with id: {}", id, e);
             throw new StudentProcessingException("Error retrieving student with id: " + id, e);
         }
     }
 
+    // PUT заменяет имя и возраст; факультет в StudentDTO не передаётся и остаётся прежним
     public Student updateStudent(long id, Student student) {
-        logger.info("Was invoked method for update student");
+        logger.info(INVOCATION, "Was invoked method for update student");
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null");
+        }
+
+        StudentPatch patch = new StudentPatch();
+        patch.setName(student.getName());
+        patch.setAge(student.getAge());
+        patch.setExpectedVersion(student.getVersion());
+        return patchStudent(id, patch);
+    }
+
+    public Student patchStudent(long id, StudentPatch patch) {
+        logger.info(INVOCATION, "Was invoked method for patch student");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid student id: " + id);
             }
-            if (student == null) {
-                throw new IllegalArgumentException("Student cannot be null");
+            if (patch == null) {
+                throw new IllegalArgumentException("Patch cannot be null");
             }
-
-            if (!studentRepository.existsById(id)) {
-                throw new StudentNotFoundException("Student not found with id: " + id);
+            if (patch.isNameSet() && (patch.getName() == null || patch.getName().trim().isEmpty())) {
+                throw new IllegalArgumentException("Student name cannot be null or empty");
+            }
+            if (patch.isAgeSet() && (patch.getAge() == null || patch.getAge() <= 0)) {
+                throw new IllegalArgumentException("Student age must be positive");
+            }
+            if (patch.isFacultySet() && patch.getFacultyId() != null && patch.getFacultyId() <= 0) {
+                throw new IllegalArgumentException("Invalid faculty id: " + patch.getFacultyId());
+            }
+            if (patch.isEmpty()) {
+                return getStudentById(id);
             }
 
-            student.setId(id);
-            return studentRepository.save(student);
-        } catch (StudentNotFoundException | IllegalArgumentException e) {
-            logger.error("Error during student update for id: {}", id, e);
+            Student patched = studentRepository.updateReturning(id, patch)
+                    .orElseThrow(() -> missingOrConflict(id, patch.getExpectedVersion()));
+            invalidationPublisher.studentChanged(id);
+            changeFeed.publish(ChangeEvent.Entity.STUDENT, ChangeEvent.Action.UPDATED, id);
+            return patched;
+        } catch (StudentNotFoundException | VersionConflictException | IllegalArgumentException e) {
             throw e;
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.isMissingFaculty(e)) {
+                throw new FacultyNotFoundException("Faculty not found with id: " + patch.getFacultyId(), e);
+            }
+            throw new StudentProcessingException("Error updating student with id: " + id, e);
         } catch (Exception e) {
-            logger.error("Unexpected error during student update for id: {}", id, e);
             throw new StudentProcessingException("Error updating student with id: " + id, e);
         }
     }
 
     public Student deleteStudent(long id) {
-        logger.info("Was invoked method for delete student");
+        logger.info(INVOCATION, "Was invoked method for delete student");
         try {
             if (id <= 0) {
                 throw new IllegalArgumentException("Invalid student id: " + id);
             }
 
-            Student student = studentRepository.findById(id)
+            Student deleted = studentRepository.deleteReturning(id)
                     .orElseThrow(() -> new StudentNotFoundException("Student not found with id: " + id));
-
-            studentRepository.deleteById(id);
-            return student;
-        } catch (StudentNotFoundException e) {
-            logger.warn("Student not found for deletion with id: {}", id);
-            throw e;
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid student id for deletion: {}", id, e);
+            invalidationPublisher.studentChanged(id);
+            invalidationPublisher.avatarChanged(id);
+            changeFeed.publish(ChangeEvent.Entity.STUDENT, ChangeEvent.Action.DELETED, id);
+            return deleted;
+        } catch (StudentNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error deleting student with id: {}", id, e);
             throw new StudentProcessingException("Error deleting student with id: " + id, e);
         }
     }
 
-    public Collection<Student> getStudentsByAge(int age) {
-        logger.info("Was invoked method for get students by age");
+    // UPDATE не затронул строк: второй запрос только на этом пути, чтобы отличить 404 от 409
+    private RuntimeException missingOrConflict(long id, Long expectedVersion) {
+        if (expectedVersion != null && studentRepository.existsById(id)) {
+            return new VersionConflictException("Student " + id + " was modified, expected version " + expectedVersion);
+        }
+        return new StudentNotFoundException("Student not found with id: " + id);
+    }
+
+    // Потоковые выборки открывают свою транзакцию в момент чтения, здесь только проверка аргументов
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RowStream<Student> streamStudentsByAge(int age) {
+        logger.info(INVOCATION, "Was invoked method for stream students by age");
+        if (age <= 0) {
+            throw new IllegalArgumentException("Age must be positive");
+        }
+        return entityStreamer.stream(() -> studentRepository.streamByAge(age), STREAM_CLEAR_EVERY);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RowStream<Student> streamStudentsByAgeBetween(int min, int max) {
+        logger.info(INVOCATION, "Was invoked method for stream students by age between");
+        if (min <= 0 || max <= 0) {
+            throw new IllegalArgumentException("Age values must be positive");
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("Min age cannot be greater than max age");
+        }
+        return entityStreamer.stream(() -> studentRepository.streamByAgeBetween(min, max), STREAM_CLEAR_EVERY);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RowStream<Student> streamStudentsByFacultyId(long facultyId) {
+        logger.info(INVOCATION, "Was invoked method for stream students by faculty id");
+        if (facultyId <= 0) {
+            throw new IllegalArgumentException("Invalid faculty id: " + facultyId);
+        }
+        return entityStreamer.stream(() -> studentRepository.streamByFacultyId(facultyId), STREAM_CLEAR_EVERY);
+    }
+
+    // Проекция fields= идёт мимо near-кэша: кэшируются только полные сущности
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStudentFields(long id, String fields) {
+        logger.info(INVOCATION, "Was invoked method for get student fields");
         try {
-            if (age <= 0) {
-                throw new IllegalArgumentException("Age must be positive");
+            if (id <= 0) {
+                throw new IllegalArgumentException("Invalid student id: " + id);
             }
-
-            return studentRepository.findByAge(age);
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid age parameter: {}", age, e);
+            StudentFilter filter = new StudentFilter();
+            filter.setIds(List.of(id));
+            return studentRepository.findFields(StudentField.parse(fields), filter).stream().findFirst()
+                    .orElseThrow(() -> new StudentNotFoundException("Student not found with id: " + id));
+        } catch (StudentNotFoundException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving students by age: {}", age, e);
-            throw new StudentProcessingException("Error retrieving students by age: " + age, e);
+            throw new StudentProcessingException("Error retrieving student fields with id: " + id, e);
         }
     }
 
-    public Collection<Student> getStudentsByAgeBetween(int min, int max) {
-        logger.info("Was invoked method for get students by age between");
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getStudentsFieldsByAgeBetween(int min, int max, String fields) {
+        logger.info(INVOCATION, "Was invoked method for get students fields by age between");
         try {
             if (min <= 0 || max <= 0) {
                 throw new IllegalArgumentException("Age values must be positive");
@@ -147,102 +254,149 @@ public class StudentService {
             if (min > max) {
                 throw new IllegalArgumentException("Min age cannot be greater than max age");
             }
-
-            return studentRepository.findByAgeBetween(min, max);
+            StudentFilter filter = new StudentFilter();
+            filter.setMinAge(min);
+            filter.setMaxAge(max);
+            return studentRepository.findFields(StudentField.parse(fields), filter);
         } catch (IllegalArgumentException e) {
-            logger.error("Invalid age range parameters: min={}, max={}", min, max, e);
             throw e;
         } catch (Exception e) {
-            logger.error("Error retrieving students by age range: {} - {}", min, max, e);
-            throw new StudentProcessingException("Error retrieving students by age range: " + min + " - " + max, e);
+            throw new StudentProcessingException("Error retrieving students fields by age between " + min + " and " + max, e);
         }
     }
 
-    public Collection<Student> getStudentsByFacultyId(int facultyId) {
-        logger.info("Was invoked method for get students by faculty id");
+    @Transactional(readOnly = true)
+    public Integer getCountOfStudents() {
+        logger.info(INVOCATION, "Was invoked method for get count of students");
         try {
-            if (facultyId <= 0) {
-                throw new IllegalArgumentException("Invalid faculty id: " + facultyId);
-            }
-
-            return studentRepository.findByFacultyId(facultyId);
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid faculty id: {}", facultyId, e);
-            throw e;
+            return snapshotService.current().size();
         } catch (Exception e) {
-            logger.error("Error retrieving students by faculty id: {}", facultyId, e);
-            throw new StudentProcessingException("Error retrieving students by faculty id: " + facultyId, e);
+            throw new StudentProcessingException("Error retrieving student count", e);
         }
     }
 
-    public Integer getCountOfStudents() {
-        logger.info("Was invoked method for get count of students");
+    @Transactional(readOnly = true)
+    public Float getAvgAgeOfStudents() {
+        logger.info(INVOCATION, "Was invoked method for get average age of students");
         try {
-            return studentRepository.getCountOfStudents();
+            return snapshotService.current().averageAge();
         } catch (Exception e) {
-            logger.error("Error retrieving student count", e);
-            throw new StudentProcessingException("Error retrieving student count", e);
+            throw new StudentProcessingException("Error calculating average age of students", e);
         }
     }
 
-    public Float getAvgAgeOfStudents() {
-        logger.info("Was invoked method for get average age of students");
+    @Transactional(readOnly = true)
+    public StudentPage getStudentsPage(String after, int limit, String sort) {
+        logger.info(INVOCATION, "Was invoked method for get students page");
         try {
-            return studentRepository.getAvgAgeOfStudents();
+            if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            if (sort == null || sort.isBlank()) {
+                throw new IllegalArgumentException("Sort cannot be null or empty");
+            }
+
+            boolean descending = sort.startsWith("-");
+            StudentSort studentSort = StudentSort.fromParameter(descending ? sort.substring(1) : sort);
+
+            Object afterKey = null;
+            Long afterId = null;
+            if (after != null && !after.isBlank()) {
+                String[] cursor = decodeCursor(after);
+                if (!cursor[0].equals(studentSort.name()) || descending != cursor[1].equals("-")) {
+                    throw new IllegalArgumentException("Cursor does not match sort: " + sort);
+                }
+                afterId = Long.parseLong(cursor[2]);
+                afterKey = studentSort == StudentSort.AGE ? Integer.valueOf(cursor[3]) : cursor[3];
+            }
+
+            List<Student> students = studentRepository.findPage(studentSort, descending, afterKey, afterId, limit);
+            String next = students.size() < limit
+                    ? null
+                    : encodeCursor(studentSort, descending, students.get(students.size() - 1));
+            return new StudentPage(students, next);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error calculating average age of students", e);
-            throw new StudentProcessingException("Error calculating average age of students", e);
+            throw new StudentProcessingException("Error retrieving students page", e);
         }
     }
 
+    @Transactional(readOnly = true)
     public Collection<Student> getLastFiveStudents() {
-        logger.info("Was invoked method for get last five students");
+        logger.info(INVOCATION, "Was invoked method for get last five students");
         try {
-            return studentRepository.getLastFiveStudents();
+            return studentRepository.findPage(StudentSort.ID, true, null, null, 5);
         } catch (Exception e) {
-            logger.error("Error retrieving last five students", e);
             throw new StudentProcessingException("Error retrieving last five students", e);
         }
     }
 
+    // Курсор: "SORT|направление|id|ключ", ключ последним, т.к. имя может содержать '|'
+    private String encodeCursor(StudentSort sort, boolean descending, Student last) {
+        String key = switch (sort) {
+            case ID -> "";
+            case NAME -> last.getName();
+            case AGE -> String.valueOf(last.getAge());
+        };
+        String raw = sort.name() + "|" + (descending ? "-" : "+") + "|" + last.getId() + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return parts;
+    }
+
+    @Transactional(readOnly = true)
     public Collection<String> getStudentNamesStartingWithA() {
-        return studentRepository.findAll().stream()
-                .map(Student::getName)
-                .filter(name -> name.toUpperCase().startsWith("А"))
-                .sorted()
+        return snapshotService.current().namesStartingWith("А").stream()
                 .map(String::toUpperCase)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Double getAverageAgeUsingFindAll() {
-        Collection<Student> students = studentRepository.findAll();
-        return students.stream()
-                .mapToInt(Student::getAge)
-                .average()
-                .orElse(0.0);
+        Float average = snapshotService.current().averageAge();
+        return average == null ? 0.0 : average.doubleValue();
     }
 
-    public Integer calculateOptimizedSum() {
-        return IntStream.iterate(1, a -> a + 1)
-                .parallel()
-                .limit(1_000_000)
-                .reduce(0, Integer::sum);
+    public Long calculateOptimizedSum() {
+        return rosterAggregationService.sumRange(1, 1_000_000);
     }
 
-    public Student updateStudent(long id, Student student) {
-        if (studentRepository.existsById(id)) {
-            student.setId(id);
-            return studentRepository.save(student);
-        }
-        return null;
-    }
+    @Transactional(readOnly = true)
+    public RosterStatistics getRosterStatistics() {
+        logger.info(INVOCATION, "Was invoked method for get roster statistics");
+        try {
+            StudentSnapshot snapshot = snapshotService.current();
+            RosterStatistics statistics = rosterAggregationService.aggregate(snapshot.ages(), snapshot.facultyOrdinals());
 
-    public Student deleteStudent(long id) {
-        Optional<Student> student = studentRepository.findById(id);
-        if (student.isPresent()) {
-            studentRepository.deleteById(id);
-            return student.get();
+            // Группы посчитаны по порядковым номерам факультетов в снимке, наружу отдаём id;
+            // студенты без факультета идут отдельной группой, а не под выдуманным id
+            Map<Long, RosterStatistics.FacultyAgeStatistics> byFacultyId = new TreeMap<>();
+            RosterStatistics.FacultyAgeStatistics withoutFaculty = null;
+            for (Map.Entry<Long, RosterStatistics.FacultyAgeStatistics> group : statistics.byFaculty().entrySet()) {
+                int ordinal = group.getKey().intValue();
+                if (ordinal == StudentSnapshot.NO_FACULTY) {
+                    withoutFaculty = group.getValue();
+                } else {
+                    byFacultyId.put(snapshot.facultyId(ordinal), group.getValue());
+                }
+            }
+            return new RosterStatistics(statistics.count(), statistics.sum(), statistics.mean(),
+                    statistics.variance(), statistics.min(), statistics.max(), statistics.percentiles(), byFacultyId,
+                    withoutFaculty);
+        } catch (Exception e) {
+            throw new StudentProcessingException("Error calculating roster statistics", e);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
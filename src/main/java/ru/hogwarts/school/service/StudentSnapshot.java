@@ -0,0 +1,189 @@
+package ru.hogwarts.school.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Неизменяемый колоночный срез таблицы students; после сборки массивы не меняются, поэтому читается без блокировок
+public final class StudentSnapshot {
+    static final int NO_FACULTY = -1;
+    static final int NO_NAME = -1;
+
+    private final long[] ids;
+    private final int[] ages;
+    private final int[] facultyOrdinals;
+    private final long[] facultyIds;
+    private final int[] nameCodes;
+    private final String[] namePool;
+    private final Instant builtAt;
+    private final long estimatedBytes;
+
+    private StudentSnapshot(long[] ids, int[] ages, int[] facultyOrdinals, long[] facultyIds,
+                            int[] nameCodes, String[] namePool, Instant builtAt) {
+        this.ids = ids;
+        this.ages = ages;
+        this.facultyOrdinals = facultyOrdinals;
+        this.facultyIds = facultyIds;
+        this.nameCodes = nameCodes;
+        this.namePool = namePool;
+        this.builtAt = builtAt;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    public static StudentSnapshot empty() {
+        return new StudentSnapshot(new long[0], new int[0], new int[0], new long[0],
+                new int[0], new String[0], Instant.EPOCH);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public int[] ages() {
+        return ages;
+    }
+
+    public int[] facultyOrdinals() {
+        return facultyOrdinals;
+    }
+
+    public long facultyId(int ordinal) {
+        return ordinal == NO_FACULTY ? 0 : facultyIds[ordinal];
+    }
+
+    public Float averageAge() {
+        if (ages.length == 0) {
+            return null;
+        }
+        long sum = 0;
+        for (int age : ages) {
+            sum += age;
+        }
+        return (float) sum / ages.length;
+    }
+
+    // Префикс проверяется по словарю, а не по каждой строке: имён обычно много меньше, чем студентов
+    public List<String> namesStartingWith(String prefix) {
+        String upperPrefix = prefix.toUpperCase();
+        int[] occurrences = new int[namePool.length];
+        boolean[] matches = new boolean[namePool.length];
+        for (int code = 0; code < namePool.length; code++) {
+            matches[code] = namePool[code].toUpperCase().startsWith(upperPrefix);
+        }
+        for (int code : nameCodes) {
+            if (code != NO_NAME && matches[code]) {
+                occurrences[code]++;
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        for (int code = 0; code < namePool.length; code++) {
+            for (int i = 0; i < occurrences[code]; i++) {
+                result.add(namePool[code]);
+            }
+        }
+        return result;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    // Оценка без учёта выравнивания: заголовки массивов и строк плюс полезные байты
+    private long estimateBytes() {
+        long bytes = 16L * 5 + 8L * ids.length + 4L * ages.length + 4L * facultyOrdinals.length
+                + 4L * nameCodes.length + 8L * facultyIds.length;
+        bytes += 16L + 4L * namePool.length;
+        for (String name : namePool) {
+            bytes += stringBytes(name);
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return 24L + 16L + (long) value.length() * (latin1 ? 1 : 2);
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    public static final class Builder {
+        private final Map<Long, Integer> facultyOrdinalById = new HashMap<>();
+        private final List<Long> facultyIds = new ArrayList<>();
+        private final Map<String, Integer> provisionalCodes = new HashMap<>();
+        private final List<String> provisionalPool = new ArrayList<>();
+        private long[] ids;
+        private int[] ages;
+        private int[] facultyOrdinals;
+        private int[] nameCodes;
+        private int size;
+
+        private Builder(int expectedRows) {
+            int capacity = Math.max(expectedRows, 16);
+            ids = new long[capacity];
+            ages = new int[capacity];
+            facultyOrdinals = new int[capacity];
+            nameCodes = new int[capacity];
+        }
+
+        public Builder faculty(long id) {
+            facultyOrdinalById.put(id, facultyIds.size());
+            facultyIds.add(id);
+            return this;
+        }
+
+        public Builder student(long id, String name, int age, Long facultyId) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                facultyOrdinals = Arrays.copyOf(facultyOrdinals, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            facultyOrdinals[size] = facultyId == null
+                    ? NO_FACULTY
+                    : facultyOrdinalById.getOrDefault(facultyId, NO_FACULTY);
+            nameCodes[size] = name == null
+                    ? NO_NAME
+                    : provisionalCodes.computeIfAbsent(name, n -> {
+                        provisionalPool.add(n);
+                        return provisionalPool.size() - 1;
+                    });
+            size++;
+            return this;
+        }
+
+        // Словарь сортируется, чтобы коды шли в порядке имён и выборки по префиксу выходили уже отсортированными
+        public StudentSnapshot build(Instant builtAt) {
+            String[] pool = provisionalPool.toArray(String[]::new);
+            Arrays.sort(pool);
+            int[] remap = new int[pool.length];
+            for (int code = 0; code < pool.length; code++) {
+                remap[provisionalCodes.get(pool[code])] = code;
+            }
+            int[] codes = Arrays.copyOf(nameCodes, size);
+            for (int i = 0; i < codes.length; i++) {
+                if (codes[i] != NO_NAME) {
+                    codes[i] = remap[codes[i]];
+                }
+            }
+            return new StudentSnapshot(Arrays.copyOf(ids, size), Arrays.copyOf(ages, size),
+                    Arrays.copyOf(facultyOrdinals, size), facultyIds.stream().mapToLong(Long::longValue).toArray(),
+                    codes, pool, builtAt);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Снимок перестраивается по расписанию и подменяется целиком; читатели получают либо старый, либо новый, но не смесь
+@Service
+public class StudentSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(StudentSnapshotService.class);
+
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final Duration maxStaleness;
+    private final Clock clock;
+    private final AtomicReference<StudentSnapshot> current = new AtomicReference<>(StudentSnapshot.empty());
+    private volatile boolean invalidated;
+
+    public StudentSnapshotService(StudentRepository studentRepository, FacultyRepository facultyRepository,
+                                  @Value("${analytics.snapshot.max-staleness-ms:60000}") long maxStalenessMs) {
+        this(studentRepository, facultyRepository, Duration.ofMillis(maxStalenessMs), Clock.systemUTC());
+    }
+
+    StudentSnapshotService(StudentRepository studentRepository, FacultyRepository facultyRepository,
+                           Duration maxStaleness, Clock clock) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+    }
+
+    // Если плановое обновление отстало (упало или не успело), снимок старше границы перестраивается на месте
+    public StudentSnapshot current() {
+        StudentSnapshot snapshot = current.get();
+        if (isStale(snapshot)) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (isStale(snapshot)) {
+                    snapshot = refresh();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    // Для массовых изменений: ждать плановое обновление не нужно, следующий читатель перестроит снимок
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot.refresh-ms:15000}")
+    @Transactional(readOnly = true)
+    public StudentSnapshot refresh() {
+        long started = System.nanoTime();
+        invalidated = false;
+        List<Object[]> rows = studentRepository.findSnapshotColumns();
+        StudentSnapshot.Builder builder = StudentSnapshot.builder(rows.size());
+        for (Faculty faculty : facultyRepository.findAll()) {
+            builder.faculty(faculty.getId());
+        }
+        for (Object[] row : rows) {
+            builder.student(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).intValue(),
+                    row[3] == null ? null : ((Number) row[3]).longValue());
+        }
+        StudentSnapshot snapshot = builder.build(clock.instant());
+        current.set(snapshot);
+        logger.debug("Student snapshot rebuilt: {} rows, ~{} bytes in {} ms", snapshot.size(),
+                snapshot.estimatedBytes(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return snapshot;
+    }
+
+    public Duration getAge() {
+        return Duration.between(current.get().getBuiltAt(), clock.instant());
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public int getRows() {
+        return current.get().size();
+    }
+
+    public long getEstimatedBytes() {
+        return current.get().estimatedBytes();
+    }
+
+    private boolean isStale(StudentSnapshot snapshot) {
+        return invalidated || snapshot.getBuiltAt().plus(maxStaleness).isBefore(clock.instant());
+    }
+}
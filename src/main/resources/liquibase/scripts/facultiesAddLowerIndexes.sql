@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset anesterov:6
+CREATE INDEX idx_faculties_lower_name ON faculties((lower(name)));
+
+-- changeset anesterov:7
+CREATE INDEX idx_faculties_lower_color ON faculties((lower(color)));
@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset anesterov:4
+CREATE INDEX idx_faculties_name_length ON faculties((length(name)) DESC NULLS LAST, id);
+
+-- changeset anesterov:5
+CREATE INDEX idx_faculties_color_length ON faculties((length(color)) DESC NULLS LAST, id);
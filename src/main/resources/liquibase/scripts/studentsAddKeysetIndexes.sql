@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset anesterov:2
+CREATE INDEX idx_students_name_id ON students(name, id);
+
+-- changeset anesterov:3
+CREATE INDEX idx_students_age_id ON students(age, id);
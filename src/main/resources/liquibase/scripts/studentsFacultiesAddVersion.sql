@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset anesterov:8
+ALTER TABLE students ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- changeset anesterov:9
+ALTER TABLE faculties ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- liquibase formatted sql
+
+-- changeset anesterov:10 splitStatements:false
+-- The service tells a missing faculty apart from other integrity violations by this constraint name,
+-- so the students.faculty_id foreign key gets a fixed name whatever it was generated as
+DO $$
+DECLARE
+    existing TEXT;
+BEGIN
+    SELECT c.conname INTO existing
+    FROM pg_constraint c
+    JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+    WHERE c.conrelid = 'students'::regclass AND c.contype = 'f' AND a.attname = 'faculty_id';
+
+    IF existing IS NULL THEN
+        ALTER TABLE students ADD CONSTRAINT fk_students_faculty FOREIGN KEY (faculty_id) REFERENCES faculties (id);
+    ELSIF existing <> 'fk_students_faculty' THEN
+        EXECUTE format('ALTER TABLE students RENAME CONSTRAINT %I TO fk_students_faculty', existing);
+    END IF;
+END $$;
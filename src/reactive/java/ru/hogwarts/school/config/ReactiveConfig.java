@@ -0,0 +1,31 @@
+package ru.hogwarts.school.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public ConnectionFactory r2dbcConnectionFactory(@Value("${reactive.r2dbc.url}") String url,
+                                                    @Value("${reactive.r2dbc.username}") String username,
+                                                    @Value("${reactive.r2dbc.password}") String password) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return ConnectionFactories.get(options);
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory r2dbcConnectionFactory) {
+        return DatabaseClient.create(r2dbcConnectionFactory);
+    }
+}
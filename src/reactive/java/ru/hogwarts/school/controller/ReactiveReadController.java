@@ -0,0 +1,60 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.SimpleStudentDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.repository.ReactiveReadRepository;
+
+// Работает в сервлетном Spring MVC рядом с обычными контроллерами: Mono/Flux обслуживаются через async dispatch,
+// NDJSON отдаётся потоком по мере чтения из R2DBC, а application/json собирается в массив
+@RequestMapping("reactive")
+@RestController
+@Profile("reactive")
+public class ReactiveReadController {
+
+    private final ReactiveReadRepository reactiveReadRepository;
+
+    public ReactiveReadController(ReactiveReadRepository reactiveReadRepository) {
+        this.reactiveReadRepository = reactiveReadRepository;
+    }
+
+    @GetMapping(value = "faculty", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<FacultyDTO> getFaculties() {
+        return reactiveReadRepository.findAllFaculties();
+    }
+
+    @GetMapping(value = "faculty/students/{id}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<SimpleStudentDTO> getFacultyStudents(@PathVariable long id) {
+        return reactiveReadRepository.findStudentsByFacultyId(id);
+    }
+
+    @GetMapping("student/{id}")
+    public Mono<ResponseEntity<StudentDTO>> getStudent(@PathVariable long id) {
+        return reactiveReadRepository.findStudentById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("student/{id}/avatar/preview")
+    public Mono<ResponseEntity<byte[]>> downloadAvatar(@PathVariable long id) {
+        return reactiveReadRepository.findAvatarPreview(id)
+                .map(avatar -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.parseMediaType(avatar.getMediaType()));
+                    headers.setContentLength(avatar.getData().length);
+                    headers.setCacheControl("no-cache");
+                    return ResponseEntity.ok().headers(headers).body(avatar.getData());
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
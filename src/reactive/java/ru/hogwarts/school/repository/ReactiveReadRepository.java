@@ -0,0 +1,107 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.SimpleFacultyDTO;
+import ru.hogwarts.school.dto.SimpleStudentDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.model.Avatar;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+@Repository
+@Profile("reactive")
+public class ReactiveReadRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Один запрос с LEFT JOIN, отсортированный по факультету: строки одного факультета идут подряд
+    // и собираются в FacultyDTO по мере чтения, без загрузки всей выборки в память
+    public Flux<FacultyDTO> findAllFaculties() {
+        return databaseClient.sql("""
+                        SELECT f.id AS faculty_id, f.name AS faculty_name, f.color AS faculty_color,
+                               s.id AS student_id, s.name AS student_name, s.age AS student_age
+                        FROM faculties f
+                        LEFT JOIN students s ON s.faculty_id = f.id
+                        ORDER BY f.id, s.id""")
+                .map((row, metadata) -> new FacultyRow(
+                        row.get("faculty_id", Long.class),
+                        row.get("faculty_name", String.class),
+                        row.get("faculty_color", String.class),
+                        row.get("student_id", Long.class),
+                        row.get("student_name", String.class),
+                        row.get("student_age", Integer.class)))
+                .all()
+                .bufferUntilChanged(FacultyRow::facultyId)
+                .map(this::toFacultyDTO);
+    }
+
+    public Flux<SimpleStudentDTO> findStudentsByFacultyId(long facultyId) {
+        return databaseClient.sql("SELECT id, name, age FROM students WHERE faculty_id = :facultyId ORDER BY id")
+                .bind("facultyId", facultyId)
+                .map((row, metadata) -> new SimpleStudentDTO(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("age", Integer.class)))
+                .all();
+    }
+
+    public Mono<StudentDTO> findStudentById(long id) {
+        return databaseClient.sql("""
+                        SELECT s.id, s.name, s.age, f.id AS faculty_id, f.name AS faculty_name, f.color AS faculty_color
+                        FROM students s
+                        LEFT JOIN faculties f ON f.id = s.faculty_id
+                        WHERE s.id = :id""")
+                .bind("id", id)
+                .map((row, metadata) -> {
+                    Long facultyId = row.get("faculty_id", Long.class);
+                    SimpleFacultyDTO faculty = facultyId == null ? null : new SimpleFacultyDTO(
+                            facultyId, row.get("faculty_name", String.class), row.get("faculty_color", String.class));
+                    return new StudentDTO(row.get("id", Long.class), row.get("name", String.class),
+                            row.get("age", Integer.class), faculty);
+                })
+                .one();
+    }
+
+    // @Lob byte[] в Hibernate 6 хранится в Postgres как large object (oid), поэтому читаем через lo_get.
+    // Аватар без превью (data IS NULL) в выборку не попадает и даёт 404, как отсутствующий
+    public Mono<Avatar> findAvatarPreview(long studentId) {
+        return databaseClient.sql("""
+                        SELECT media_type, lo_get(data) AS data
+                        FROM avatars
+                        WHERE student_id = :studentId AND data IS NOT NULL""")
+                .bind("studentId", studentId)
+                .map((row, metadata) -> {
+                    ByteBuffer buffer = row.get("data", ByteBuffer.class);
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    Avatar avatar = new Avatar();
+                    avatar.setMediaType(row.get("media_type", String.class));
+                    avatar.setData(data);
+                    return avatar;
+                })
+                .one();
+    }
+
+    private FacultyDTO toFacultyDTO(List<FacultyRow> rows) {
+        FacultyRow first = rows.get(0);
+        List<SimpleStudentDTO> students = rows.stream()
+                .filter(row -> row.studentId() != null)
+                .map(row -> new SimpleStudentDTO(row.studentId(), row.studentName(), row.studentAge()))
+                .toList();
+        return new FacultyDTO(first.facultyId(), first.facultyName(), first.facultyColor(), students);
+    }
+
+    private record FacultyRow(Long facultyId, String facultyName, String facultyColor,
+                              Long studentId, String studentName, Integer studentAge) {
+    }
+}
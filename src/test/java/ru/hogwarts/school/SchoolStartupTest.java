@@ -0,0 +1,87 @@
+package ru.hogwarts.school;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Холодный старт с профилем startup: схема уже накатана отдельным шагом SchoolMigration.
+// Замер на обычной JVM; AOT-код и кэш классов дают выигрыш только на собранном через -Pstartup jar
+class SchoolStartupTest {
+
+    private static final long MAX_STARTUP_MS = Long.getLong("startup.maxStartupMs", 15_000);
+    private static final long MAX_FIRST_REQUEST_MS = Long.getLong("startup.maxFirstRequestMs", 20_000);
+
+    private static EmbeddedPostgres postgres;
+    private static String jdbcUrl;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+        SpringApplication.exit(SchoolMigration.migrate(args()));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void startupProfile_ShouldStartAndServeFirstRequestQuickly() throws Exception {
+        // Given
+        HttpClient client = HttpClient.newHttpClient();
+        long started = System.nanoTime();
+
+        // When
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SchoolApplication.class)
+                .profiles("prod", "startup")
+                .run(args("--server.port=0"))) {
+            long startupMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/faculty")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            long firstRequestMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            System.out.printf("startup: %d ms, first request: %d ms%n", startupMs, firstRequestMs);
+
+            // Then
+            assertEquals(200, response.statusCode());
+            assertFalse(context.containsBean("liquibase"));
+            assertTrue(startupMs <= MAX_STARTUP_MS, "Startup took " + startupMs + " ms");
+            assertTrue(firstRequestMs <= MAX_FIRST_REQUEST_MS, "First request after " + firstRequestMs + " ms");
+        }
+    }
+
+    // Вспомогательные методы
+    private static String[] args(String... extra) {
+        String[] common = {
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres"};
+        String[] all = new String[common.length + extra.length];
+        System.arraycopy(common, 0, all, 0, common.length);
+        System.arraycopy(extra, 0, all, common.length, extra.length);
+        return all;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.exception.DatabaseBusyException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadDataSourceTest {
+
+    @Test
+    void getConnection_WhenPermitsAreTaken_ShouldFailFastWithDatabaseBusy() throws Exception {
+        // Given
+        BulkheadDataSource bulkhead = new BulkheadDataSource(dataSource(), 1, 50);
+        Connection held = bulkhead.getConnection();
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(DatabaseBusyException.class, bulkhead::getConnection);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMs < 1_000, "waited " + elapsedMs + " ms");
+        assertEquals(1, bulkhead.getRejected());
+        held.close();
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void close_WhenCalledTwice_ShouldReleasePermitOnce() throws Exception {
+        // Given
+        BulkheadDataSource bulkhead = new BulkheadDataSource(dataSource(), 2, 50);
+        Connection connection = bulkhead.getConnection();
+
+        // When
+        connection.close();
+        connection.close();
+
+        // Then
+        assertEquals(2, bulkhead.getAvailablePermits());
+    }
+
+    // Вспомогательные методы
+    private static DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection") ? connection() : null);
+    }
+
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+    }
+}
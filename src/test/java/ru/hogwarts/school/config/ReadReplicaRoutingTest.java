@@ -0,0 +1,141 @@
+package ru.hogwarts.school.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.NearCache;
+
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Две независимые базы вместо основной и реплики: по содержимому видно, куда ушёл запрос
+class ReadReplicaRoutingTest {
+
+    private static final long READ_YOUR_WRITES_MS = 300;
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+    private static ConfigurableApplicationContext context;
+    private static FacultyService facultyService;
+    private static ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        try (Connection connection = primary.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+        // На реплику Liquibase не запускается: колонки, которые читают сущности, добавляем сами
+        try (Connection connection = replica.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+            ScriptUtils.executeSqlScript(connection,
+                    new ClassPathResource("liquibase/scripts/studentsFacultiesAddVersion.sql"));
+        }
+
+        context = new SpringApplicationBuilder(SchoolApplication.class)
+                .profiles("replica")
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + primary.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.datasource.replica.jdbc-url=" + replica.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.replica.username=postgres",
+                        "--spring.datasource.replica.password=postgres",
+                        "--datasource.replica.read-your-writes-ms=" + READ_YOUR_WRITES_MS,
+                        "--spring.jpa.show-sql=false");
+        facultyService = context.getBean(FacultyService.class);
+        routingDataSource = context.getBean(ReadWriteRoutingDataSource.class);
+    }
+
+    @AfterAll
+    static void stopApplication() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    @BeforeEach
+    void seedDatabases() throws InterruptedException {
+        seed(new JdbcTemplate(primary.getPostgresDatabase()), "Гриффиндор");
+        seed(new JdbcTemplate(replica.getPostgresDatabase()), "Слизерин");
+        // Сиды обходят пул приложения; окно после записей предыдущего теста должно истечь
+        Thread.sleep(READ_YOUR_WRITES_MS * 2);
+    }
+
+    @Test
+    void readOnlyQuery_GoesToReplica() {
+        // Given
+        long replicaRoutes = routingDataSource.getReplicaRoutes();
+
+        // When
+        Collection<Faculty> faculties = facultyService.getAllFaculties();
+
+        // Then
+        assertEquals(List.of("Слизерин"), names(faculties));
+        assertTrue(routingDataSource.getReplicaRoutes() > replicaRoutes);
+    }
+
+    @Test
+    void readAfterWrite_GoesToPrimaryUntilWindowExpires() throws InterruptedException {
+        // Given
+        Faculty faculty = new Faculty();
+        faculty.setName("Когтевран");
+        faculty.setColor("Синий");
+
+        // When
+        facultyService.createFaculty(faculty);
+        Collection<Faculty> justAfterWrite = facultyService.getAllFaculties();
+        Thread.sleep(READ_YOUR_WRITES_MS * 2);
+        Collection<Faculty> afterWindow = facultyService.getAllFaculties();
+
+        // Then
+        assertTrue(names(justAfterWrite).containsAll(List.of("Гриффиндор", "Когтевран")));
+        assertEquals(List.of("Слизерин"), names(afterWindow));
+        assertTrue(routingDataSource.getPinnedReads() > 0);
+    }
+
+    @Test
+    void nearCacheLoad_GoesToPrimary() {
+        // Given
+        context.getBean("facultyCache", NearCache.class).clear();
+        long cacheLoads = routingDataSource.getCacheLoads();
+
+        // When
+        Faculty faculty = facultyService.getFacultyById(100000L);
+
+        // Then
+        assertEquals("Гриффиндор", faculty.getName());
+        assertTrue(routingDataSource.getCacheLoads() > cacheLoads);
+    }
+
+    // Вспомогательные методы
+    private static void seed(JdbcTemplate jdbcTemplate, String facultyName) {
+        jdbcTemplate.update("DELETE FROM faculties");
+        jdbcTemplate.update("INSERT INTO faculties (id, name, color) VALUES (100000, ?, 'Красный')", facultyName);
+    }
+
+    private static List<String> names(Collection<Faculty> faculties) {
+        return faculties.stream().map(Faculty::getName).sorted().toList();
+    }
+}
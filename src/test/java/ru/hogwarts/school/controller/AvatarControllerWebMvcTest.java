@@ -14,6 +14,7 @@ import ru.hogwarts.school.exception.AvatarNotFoundException;
 import ru.hogwarts.school.exception.AvatarProcessingException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.service.AvatarMetrics;
 import ru.hogwarts.school.service.AvatarService;
 
 import java.nio.file.Files;
@@ -34,6 +35,9 @@ class AvatarControllerWebMvcTest {
     @MockitoBean
     private AvatarService avatarService;
 
+    @MockitoBean
+    private AvatarMetrics avatarMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -1,24 +1,44 @@
 package ru.hogwarts.school.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.hogwarts.school.config.ProtobufDtoHttpMessageConverter;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.dto.SimpleFacultyDTO;
+import ru.hogwarts.school.dto.SimpleStudentDTO;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.mapper.FacultyMapper;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyPatch;
+import ru.hogwarts.school.repository.FacultyStatsView;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.RowStream;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,6 +63,9 @@ class FacultyControllerWebMvcTest {
     @MockitoBean
     private FacultyMapper facultyMapper;
 
+    @MockitoBean
+    private PrecompressedFacultyListing precompressedFacultyListing;
+
     @Test
     void createFaculty_ShouldReturnCreatedFaculty() throws Exception {
         // Given
@@ -109,41 +132,41 @@ class FacultyControllerWebMvcTest {
     @Test
     void getFacultyStudents_WhenFacultyExists_ShouldReturnStudentsList() throws Exception {
         // Given
-        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
         Student student = createStudent(1L, HARRY_POTTER_NAME, STUDENT_AGE_17);
         List<Student> students = List.of(student);
 
-        when(facultyService.getFacultyById(1L)).thenReturn(faculty);
-        when(studentService.getStudentsByFacultyId(1)).thenReturn(students);
+        when(studentService.streamStudentsByFacultyId(1L)).thenReturn(rows(students));
 
         // When & Then
-        mockMvc.perform(get("/faculty/students/1"))
+        performStreaming(get("/faculty/students/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1));
+
+        verify(facultyService).ensureFacultyExists(1L);
+        verify(facultyService, never()).getFacultyById(anyLong());
     }
 
     @Test
     void getFacultyStudents_WhenFacultyNotExists_ShouldReturnNotFound() throws Exception {
         // Given
-        when(facultyService.getFacultyById(NON_EXISTENT_ID))
-                .thenThrow(new FacultyNotFoundException(FACULTY_NOT_FOUND_MESSAGE));
+        doThrow(new FacultyNotFoundException(FACULTY_NOT_FOUND_MESSAGE))
+                .when(facultyService).ensureFacultyExists(NON_EXISTENT_ID);
 
         // When & Then
         mockMvc.perform(get("/faculty/students/" + NON_EXISTENT_ID))
                 .andExpect(status().isNotFound());
+
+        verify(studentService, never()).streamStudentsByFacultyId(anyLong());
     }
 
     @Test
     void getFacultyStudents_WhenFacultyHasNoStudents_ShouldReturnEmptyList() throws Exception {
         // Given
-        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
-
-        when(facultyService.getFacultyById(1L)).thenReturn(faculty);
-        when(studentService.getStudentsByFacultyId(1)).thenReturn(Collections.emptyList());
+        when(studentService.streamStudentsByFacultyId(1L)).thenReturn(rows(Collections.emptyList()));
 
         // When & Then
-        mockMvc.perform(get("/faculty/students/1"))
+        performStreaming(get("/faculty/students/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(0));
@@ -156,11 +179,11 @@ class FacultyControllerWebMvcTest {
         FacultyDTO facultyDTO = createFacultyDTO(1L, RAVENCLAW_NAME, RAVENCLAW_COLOR);
         List<Faculty> faculties = List.of(faculty);
 
-        when(facultyService.getFacultiesByName(RAVENCLAW_NAME)).thenReturn(faculties);
+        when(facultyService.streamFacultiesByName(RAVENCLAW_NAME)).thenReturn(rows(faculties));
         when(facultyMapper.toDTO(any(Faculty.class))).thenReturn(facultyDTO);
 
         // When & Then
-        mockMvc.perform(get("/faculty")
+        performStreaming(get("/faculty")
                         .param("name", RAVENCLAW_NAME))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
@@ -175,11 +198,11 @@ class FacultyControllerWebMvcTest {
         FacultyDTO facultyDTO = createFacultyDTO(1L, HUFFLEPUFF_NAME, HUFFLEPUFF_COLOR);
         List<Faculty> faculties = List.of(faculty);
 
-        when(facultyService.getFacultiesByColor(HUFFLEPUFF_COLOR)).thenReturn(faculties);
+        when(facultyService.streamFacultiesByColor(HUFFLEPUFF_COLOR)).thenReturn(rows(faculties));
         when(facultyMapper.toDTO(any(Faculty.class))).thenReturn(facultyDTO);
 
         // When & Then
-        mockMvc.perform(get("/faculty")
+        performStreaming(get("/faculty")
                         .param("color", HUFFLEPUFF_COLOR))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
@@ -196,12 +219,12 @@ class FacultyControllerWebMvcTest {
         FacultyDTO facultyDTO2 = createFacultyDTO(2L, SLYTHERIN_NAME, SLYTHERIN_COLOR);
         List<Faculty> faculties = List.of(faculty1, faculty2);
 
-        when(facultyService.getAllFaculties()).thenReturn(faculties);
+        when(facultyService.streamAllFaculties()).thenReturn(rows(faculties));
         when(facultyMapper.toDTO(faculty1)).thenReturn(facultyDTO1);
         when(facultyMapper.toDTO(faculty2)).thenReturn(facultyDTO2);
 
         // When & Then
-        mockMvc.perform(get("/faculty"))
+        performStreaming(get("/faculty"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1))
@@ -210,6 +233,147 @@ class FacultyControllerWebMvcTest {
                 .andExpect(jsonPath("$[1].name").value(SLYTHERIN_NAME));
     }
 
+    @Test
+    void getAllFaculties_WithGzipAcceptEncoding_ShouldReturnPrecompressedBody() throws Exception {
+        // Given
+        byte[] gzipped = gzip("[{\"id\":1,\"name\":\"" + GRYFFINDOR_NAME + "\"}]");
+        when(precompressedFacultyListing.getGzippedFaculties()).thenReturn(gzipped);
+
+        // When & Then
+        mockMvc.perform(get("/faculty")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(gzipped));
+
+        verify(facultyService, never()).streamAllFaculties();
+    }
+
+    @Test
+    void getAllFaculties_WithGzipRefused_ShouldStreamUncompressedJson() throws Exception {
+        // Given
+        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        when(facultyService.streamAllFaculties()).thenReturn(rows(List.of(faculty)));
+        when(facultyMapper.toDTO(faculty)).thenReturn(createFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR));
+
+        // When & Then
+        performStreaming(get("/faculty")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$[0].name").value(GRYFFINDOR_NAME));
+
+        verify(precompressedFacultyListing, never()).getGzippedFaculties();
+    }
+
+    @Test
+    void getAllFaculties_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        // Given
+        when(facultyService.getFacultiesFields(null, null, "id,name"))
+                .thenReturn(List.of(fields(1L, GRYFFINDOR_NAME), fields(2L, SLYTHERIN_NAME)));
+
+        // When & Then
+        mockMvc.perform(get("/faculty")
+                        .param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value(GRYFFINDOR_NAME))
+                .andExpect(jsonPath("$[0].color").doesNotExist())
+                .andExpect(jsonPath("$[0].students").doesNotExist());
+
+        verify(facultyService, never()).streamAllFaculties();
+    }
+
+    @Test
+    void getFacultyById_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(facultyService.getFacultyFields(1L, "id,house"))
+                .thenThrow(new IllegalArgumentException("Unsupported field: house"));
+
+        // When & Then
+        mockMvc.perform(get("/faculty/1")
+                        .param("fields", "id,house"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllFaculties_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Given
+        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        FacultyDTO facultyDTO = createFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+
+        when(facultyService.streamAllFaculties()).thenReturn(rows(List.of(faculty)));
+        when(facultyMapper.toDTO(faculty)).thenReturn(facultyDTO);
+
+        // When
+        byte[] body = performStreaming(get("/faculty").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        FacultyDTO[] decoded = new CBORMapper().readValue(body, FacultyDTO[].class);
+        assertEquals(1, decoded.length);
+        assertEquals(GRYFFINDOR_NAME, decoded[0].getName());
+    }
+
+    @Test
+    void getAllFaculties_WithProtobufAccept_ShouldReturnProtobufList() throws Exception {
+        // Given
+        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        FacultyDTO facultyDTO = createFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        facultyDTO.setStudents(List.of(new SimpleStudentDTO(10L, HARRY_POTTER_NAME, STUDENT_AGE_17)));
+
+        when(facultyService.streamAllFaculties()).thenReturn(rows(List.of(faculty)));
+        when(facultyMapper.toDTO(faculty)).thenReturn(facultyDTO);
+
+        // When
+        byte[] body = performStreaming(get("/faculty").accept(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        Type listType = new ParameterizedTypeReference<List<FacultyDTO>>() {
+        }.getType();
+        @SuppressWarnings("unchecked")
+        List<FacultyDTO> decoded = (List<FacultyDTO>) new ProtobufDtoHttpMessageConverter()
+                .read(listType, null, new MockHttpInputMessage(body));
+        assertEquals(1, decoded.size());
+        assertEquals(GRYFFINDOR_NAME, decoded.get(0).getName());
+        assertEquals(HARRY_POTTER_NAME, decoded.get(0).getStudents().get(0).getName());
+    }
+
+    @Test
+    void getFacultiesByColor_WithProtobufAccept_ShouldStreamEveryFaculty() throws Exception {
+        // Given
+        Faculty gryffindor = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        Faculty slytherin = createFaculty(2L, SLYTHERIN_NAME, GRYFFINDOR_COLOR);
+
+        when(facultyService.streamFacultiesByColor(GRYFFINDOR_COLOR)).thenReturn(rows(List.of(gryffindor, slytherin)));
+        when(facultyMapper.toDTO(gryffindor)).thenReturn(createFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR));
+        when(facultyMapper.toDTO(slytherin)).thenReturn(createFacultyDTO(2L, SLYTHERIN_NAME, GRYFFINDOR_COLOR));
+
+        // When
+        byte[] body = performStreaming(get("/faculty")
+                        .param("color", GRYFFINDOR_COLOR)
+                        .accept(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        Type listType = new ParameterizedTypeReference<List<FacultyDTO>>() {
+        }.getType();
+        @SuppressWarnings("unchecked")
+        List<FacultyDTO> decoded = (List<FacultyDTO>) new ProtobufDtoHttpMessageConverter()
+                .read(listType, null, new MockHttpInputMessage(body));
+        assertEquals(List.of(GRYFFINDOR_NAME, SLYTHERIN_NAME), decoded.stream().map(FacultyDTO::getName).toList());
+    }
+
     @Test
     void updateFaculty_WhenFacultyExists_ShouldReturnUpdatedFaculty() throws Exception {
         // Given
@@ -253,7 +417,6 @@ class FacultyControllerWebMvcTest {
         Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
         SimpleFacultyDTO facultyDTO = createSimpleFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
 
-        when(facultyService.getFacultyById(1L)).thenReturn(faculty);
         when(facultyMapper.toSimpleDTO(any(Faculty.class))).thenReturn(facultyDTO);
         when(facultyService.deleteFaculty(1L)).thenReturn(faculty);
 
@@ -268,7 +431,7 @@ class FacultyControllerWebMvcTest {
     @Test
     void deleteFaculty_WhenFacultyNotExists_ShouldReturnNotFound() throws Exception {
         // Given
-        when(facultyService.getFacultyById(NON_EXISTENT_ID))
+        when(facultyService.deleteFaculty(NON_EXISTENT_ID))
                 .thenThrow(new FacultyNotFoundException(FACULTY_NOT_FOUND_MESSAGE));
 
         // When & Then
@@ -276,7 +439,121 @@ class FacultyControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void patchFaculty_WithMergePatch_ShouldReturnPatchedFaculty() throws Exception {
+        // Given
+        FacultyPatch patch = new FacultyPatch();
+        patch.setColor("Алый");
+        Faculty faculty = createFaculty(1L, GRYFFINDOR_NAME, "Алый");
+        FacultyDTO facultyDTO = createFacultyDTO(1L, GRYFFINDOR_NAME, "Алый");
+
+        when(facultyMapper.toPatch(any())).thenReturn(patch);
+        when(facultyService.patchFaculty(1L, patch)).thenReturn(faculty);
+        when(facultyMapper.toDTO(faculty)).thenReturn(facultyDTO);
+
+        // When & Then
+        mockMvc.perform(patch("/faculty/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"color\": \"Алый\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(GRYFFINDOR_NAME))
+                .andExpect(jsonPath("$.color").value("Алый"));
+    }
+
+    @Test
+    void patchFaculty_WithUnsupportedField_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(facultyMapper.toPatch(any())).thenThrow(new IllegalArgumentException("Unsupported patch field: students"));
+
+        // When & Then
+        mockMvc.perform(patch("/faculty/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"students\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFacultyStats_ShouldReturnAggregatesWithAvatarCoverage() throws Exception {
+        // Given
+        FacultyStatsView row = mock(FacultyStatsView.class);
+        when(row.getFacultyId()).thenReturn(1L);
+        when(row.getFacultyName()).thenReturn(GRYFFINDOR_NAME);
+        when(row.getStudentCount()).thenReturn(4L);
+        when(row.getMinAge()).thenReturn(11);
+        when(row.getAvgAge()).thenReturn(13.5);
+        when(row.getMaxAge()).thenReturn(17);
+        when(row.getAvatarCount()).thenReturn(1L);
+
+        when(facultyService.getFacultyStats()).thenReturn(List.of(row));
+
+        // When & Then
+        mockMvc.perform(get("/faculty/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value(GRYFFINDOR_NAME))
+                .andExpect(jsonPath("$[0].studentCount").value(4))
+                .andExpect(jsonPath("$[0].avgAge").value(13.5))
+                .andExpect(jsonPath("$[0].avatarCoverage").value(0.25));
+    }
+
+    @Test
+    void getTopFaculties_ShouldReturnFacultiesInRankingOrder() throws Exception {
+        // Given
+        Faculty gryffindor = createFaculty(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR);
+        Faculty hufflepuff = createFaculty(4L, HUFFLEPUFF_NAME, HUFFLEPUFF_COLOR);
+
+        when(facultyService.getTopFaculties("name-length", 2)).thenReturn(List.of(gryffindor, hufflepuff));
+        when(facultyMapper.toSimpleDTO(gryffindor)).thenReturn(new SimpleFacultyDTO(1L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR));
+        when(facultyMapper.toSimpleDTO(hufflepuff)).thenReturn(new SimpleFacultyDTO(4L, HUFFLEPUFF_NAME, HUFFLEPUFF_COLOR));
+
+        // When & Then
+        mockMvc.perform(get("/faculty/top")
+                        .param("by", "name-length")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(GRYFFINDOR_NAME))
+                .andExpect(jsonPath("$[1].name").value(HUFFLEPUFF_NAME));
+    }
+
+    @Test
+    void getTopFaculties_WithUnknownRanking_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(facultyService.getTopFaculties("motto", 5))
+                .thenThrow(new IllegalArgumentException("Unsupported ranking: motto"));
+
+        // When & Then
+        mockMvc.perform(get("/faculty/top").param("by", "motto"))
+                .andExpect(status().isBadRequest());
+    }
+
     // Вспомогательные методы
+    private byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private Map<String, Object> fields(Long id, String name) {
+        Map<String, Object> faculty = new LinkedHashMap<>();
+        faculty.put("id", id);
+        faculty.put("name", name);
+        return faculty;
+    }
+
+    private <T> RowStream<T> rows(List<T> items) {
+        return items::forEach;
+    }
+
+    // JSON-ответ пишется асинхронно через StreamingResponseBody
+    private ResultActions performStreaming(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
     private Faculty createFaculty(Long id, String name, String color) {
         Faculty faculty = new Faculty();
         faculty.setId(id);
@@ -7,16 +7,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import ru.hogwarts.school.dto.SimpleFacultyDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.exception.DatabaseBusyException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.exception.StudentProcessingException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.mapper.FacultyMapper;
 import ru.hogwarts.school.mapper.StudentMapper;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentBulkChange;
+import ru.hogwarts.school.repository.StudentFilter;
+import ru.hogwarts.school.repository.StudentPatch;
+import ru.hogwarts.school.service.RosterStatistics;
+import ru.hogwarts.school.service.StudentBulkService;
+import ru.hogwarts.school.service.StudentPage;
+import ru.hogwarts.school.service.RowStream;
 import ru.hogwarts.school.service.StudentService;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -36,6 +50,9 @@ class StudentControllerWebMvcTest {
     @MockitoBean
     private StudentService studentService;
 
+    @MockitoBean
+    private StudentBulkService studentBulkService;
+
     @MockitoBean
     private StudentMapper studentMapper;
 
@@ -105,6 +122,19 @@ class StudentControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getStudent_WhenDatabaseBulkheadIsFull_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(studentService.getStudentById(1L))
+                .thenThrow(new StudentProcessingException("Error retrieving student with id: 1",
+                        new DatabaseBusyException("Database bulkhead is full")));
+
+        // When & Then
+        mockMvc.perform(get("/student/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void getStudentFaculty_WhenStudentAndFacultyExist_ShouldReturnFaculty() throws Exception {
         // Given
@@ -169,6 +199,27 @@ class StudentControllerWebMvcTest {
                 .andExpect(content().string("16.5"));
     }
 
+    @Test
+    void getRosterStatistics_ShouldReturnAggregates() throws Exception {
+        // Given
+        RosterStatistics statistics = new RosterStatistics(3, 50, 16.7, 0.2, STUDENT_AGE_16, STUDENT_AGE_17,
+                Map.of("p50", STUDENT_AGE_17),
+                Map.of(1L, new RosterStatistics.FacultyAgeStatistics(2, 17.0, 0.0, STUDENT_AGE_17, STUDENT_AGE_17)),
+                new RosterStatistics.FacultyAgeStatistics(1, 16.0, 0.0, STUDENT_AGE_16, STUDENT_AGE_16));
+
+        when(studentService.getRosterStatistics()).thenReturn(statistics);
+
+        // When & Then
+        mockMvc.perform(get("/student/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.mean").value(16.7))
+                .andExpect(jsonPath("$.percentiles.p50").value(STUDENT_AGE_17))
+                .andExpect(jsonPath("$.byFaculty.1.count").value(2))
+                .andExpect(jsonPath("$.byFaculty.0").doesNotExist())
+                .andExpect(jsonPath("$.withoutFaculty.count").value(1));
+    }
+
     @Test
     void getLastFiveStudents_ShouldReturnStudents() throws Exception {
         // Given
@@ -184,17 +235,89 @@ class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getStudentsPage_ShouldReturnStudentsAndNextCursor() throws Exception {
+        // Given
+        Student student = createStudent(1L, HERMIONE_GRANGER_NAME, STUDENT_AGE_17);
+        StudentDTO studentDTO = createStudentDTO(1L, HERMIONE_GRANGER_NAME, STUDENT_AGE_17);
+
+        when(studentService.getStudentsPage(null, 1, "name")).thenReturn(new StudentPage(List.of(student), "cursor"));
+        when(studentMapper.toDTO(any(Student.class))).thenReturn(studentDTO);
+
+        // When & Then
+        mockMvc.perform(get("/student")
+                        .param("limit", "1")
+                        .param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.students.length()").value(1))
+                .andExpect(jsonPath("$.students[0].name").value(HERMIONE_GRANGER_NAME))
+                .andExpect(jsonPath("$.next").value("cursor"));
+    }
+
+    @Test
+    void getStudentsPage_WithInvalidSort_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(studentService.getStudentsPage(null, 20, "house"))
+                .thenThrow(new IllegalArgumentException("Unsupported sort key: house"));
+
+        // When & Then
+        mockMvc.perform(get("/student")
+                        .param("sort", "house"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStudent_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        // Given
+        when(studentService.getStudentFields(1L, "name,faculty"))
+                .thenReturn(Map.of("name", HARRY_POTTER_NAME,
+                        "faculty", Map.of("id", 1L, "name", GRYFFINDOR_NAME, "color", GRYFFINDOR_COLOR)));
+
+        // When & Then
+        mockMvc.perform(get("/student/1")
+                        .param("fields", "name,faculty"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(HARRY_POTTER_NAME))
+                .andExpect(jsonPath("$.faculty.name").value(GRYFFINDOR_NAME))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.age").doesNotExist());
+    }
+
+    @Test
+    void createStudent_WithMalformedJson_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + HARRY_POTTER_NAME + "\", \"age\": "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStudent_WithNonNumericId_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/student/abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStudentsPage_WithNonNumericLimit_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/student")
+                        .param("limit", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getStudentsByAge_ShouldReturnStudentsList() throws Exception {
         // Given
         Student student = createStudent(1L, RON_WEASLEY_NAME, STUDENT_AGE_17);
         StudentDTO studentDTO = createStudentDTO(1L, RON_WEASLEY_NAME, STUDENT_AGE_17);
 
-        when(studentService.getStudentsByAge(STUDENT_AGE_17)).thenReturn(List.of(student));
+        when(studentService.streamStudentsByAge(STUDENT_AGE_17)).thenReturn(rows(List.of(student)));
         when(studentMapper.toDTO(any(Student.class))).thenReturn(studentDTO);
 
         // When & Then
-        mockMvc.perform(get("/student/age/" + STUDENT_AGE_17))
+        performStreaming(get("/student/age/" + STUDENT_AGE_17))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value(RON_WEASLEY_NAME))
@@ -207,11 +330,11 @@ class StudentControllerWebMvcTest {
         Student student = createStudent(1L, DRACO_MALFOY_NAME, STUDENT_AGE_16);
         StudentDTO studentDTO = createStudentDTO(1L, DRACO_MALFOY_NAME, STUDENT_AGE_16);
 
-        when(studentService.getStudentsByAgeBetween(MIN_AGE, MAX_AGE)).thenReturn(List.of(student));
+        when(studentService.streamStudentsByAgeBetween(MIN_AGE, MAX_AGE)).thenReturn(rows(List.of(student)));
         when(studentMapper.toDTO(any(Student.class))).thenReturn(studentDTO);
 
         // When & Then
-        mockMvc.perform(get("/student/agebetween/" + MIN_AGE + "-" + MAX_AGE))
+        performStreaming(get("/student/agebetween/" + MIN_AGE + "-" + MAX_AGE))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value(DRACO_MALFOY_NAME))
@@ -264,7 +387,6 @@ class StudentControllerWebMvcTest {
         Student student = createStudent(1L, NEVILLE_LONGBOTTOM_NAME, STUDENT_AGE_17);
         StudentDTO studentDTO = createStudentDTO(1L, NEVILLE_LONGBOTTOM_NAME, STUDENT_AGE_17);
 
-        when(studentService.getStudentById(1L)).thenReturn(student);
         when(studentService.deleteStudent(1L)).thenReturn(student);
         when(studentMapper.toDTO(any(Student.class))).thenReturn(studentDTO);
 
@@ -279,7 +401,7 @@ class StudentControllerWebMvcTest {
     @Test
     void deleteStudent_WhenStudentNotExists_ShouldReturnNotFound() throws Exception {
         // Given
-        when(studentService.getStudentById(NON_EXISTENT_ID))
+        when(studentService.deleteStudent(NON_EXISTENT_ID))
                 .thenThrow(new StudentNotFoundException(STUDENT_NOT_FOUND_MESSAGE));
 
         // When & Then
@@ -287,7 +409,90 @@ class StudentControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void patchStudent_WithMergePatch_ShouldReturnPatchedStudent() throws Exception {
+        // Given
+        StudentPatch patch = new StudentPatch();
+        patch.setAge(STUDENT_AGE_18);
+        Student student = createStudent(1L, HARRY_POTTER_NAME, STUDENT_AGE_18);
+        StudentDTO studentDTO = createStudentDTO(1L, HARRY_POTTER_NAME, STUDENT_AGE_18);
+        studentDTO.setVersion(3L);
+
+        when(studentMapper.toPatch(any())).thenReturn(patch);
+        when(studentService.patchStudent(1L, patch)).thenReturn(student);
+        when(studentMapper.toDTO(student)).thenReturn(studentDTO);
+
+        // When & Then
+        mockMvc.perform(patch("/student/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"age\": 18, \"version\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(STUDENT_AGE_18))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void patchStudent_WithStaleVersion_ShouldReturnConflict() throws Exception {
+        // Given
+        when(studentMapper.toPatch(any())).thenReturn(new StudentPatch());
+        when(studentService.patchStudent(eq(1L), any(StudentPatch.class)))
+                .thenThrow(new VersionConflictException("Student 1 was modified, expected version 2"));
+
+        // When & Then
+        mockMvc.perform(patch("/student/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\": \"" + HARRY_POTTER_NAME + "\", \"version\": 2}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void bulkUpdateStudents_ShouldReturnAffectedCount() throws Exception {
+        // Given
+        StudentFilter filter = new StudentFilter();
+        StudentBulkChange change = new StudentBulkChange();
+
+        when(studentMapper.toFilter(any())).thenReturn(filter);
+        when(studentMapper.toBulkChange(any())).thenReturn(change);
+        when(studentBulkService.updateStudents(filter, change)).thenReturn(new StudentBulkService.BulkResult(2500, 3));
+
+        // When & Then
+        mockMvc.perform(post("/student/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"all\": true, \"ageDelta\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2500))
+                .andExpect(jsonPath("$.chunks").value(3));
+    }
+
+    @Test
+    void bulkDeleteStudents_WithoutCriteria_ShouldReturnBadRequest() throws Exception {
+        // Given
+        StudentFilter filter = new StudentFilter();
+
+        when(studentMapper.toFilter(any())).thenReturn(filter);
+        when(studentBulkService.deleteStudents(filter))
+                .thenThrow(new IllegalArgumentException("Filter must have criteria or set all = true"));
+
+        // When & Then
+        mockMvc.perform(post("/student/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
     // Вспомогательные методы
+    private <T> RowStream<T> rows(List<T> items) {
+        return items::forEach;
+    }
+
+    // JSON-ответ пишется асинхронно через StreamingResponseBody
+    private ResultActions performStreaming(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
     private Student createStudent(Long id, String name, int age) {
         Student student = new Student();
         student.setId(id);
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrPhaseReportTest {
+
+    @Test
+    void read_ShouldGroupSchoolEventsByPhase() throws Exception {
+        // Given
+        Path file = Files.createTempFile("school-phases", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MappingEvent.class);
+            recording.enable(RepositoryCallEvent.class);
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                MappingEvent mapping = new MappingEvent();
+                mapping.begin();
+                mapping.mapper = "StudentMapper.toDTO";
+                mapping.commit();
+            }
+            RepositoryCallEvent query = new RepositoryCallEvent();
+            query.begin();
+            Thread.sleep(5);
+            query.repository = "StudentRepository";
+            query.method = "findById";
+            query.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // When
+        Map<String, JfrPhaseReport.PhaseStats> report = JfrPhaseReport.read(file);
+
+        // Then
+        assertEquals(3, report.get("DTO Mapping").getCount());
+        assertEquals(1, report.get("Repository Call").getCount());
+        assertTrue(report.get("Repository Call").getP99().toMillis() >= 5);
+
+        Files.deleteIfExists(file);
+    }
+}
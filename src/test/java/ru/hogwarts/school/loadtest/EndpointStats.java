@@ -0,0 +1,59 @@
+package ru.hogwarts.school.loadtest;
+
+import java.util.Arrays;
+
+public class EndpointStats {
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+    private long bytes;
+
+    void record(long latencyNanos, boolean error, long responseBytes) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+        bytes += responseBytes;
+    }
+
+    void merge(EndpointStats other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latenciesNanos[i], false, 0);
+        }
+        errors += other.errors;
+        bytes += other.bytes;
+    }
+
+    public long getRequests() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getAverageBytes() {
+        return count == 0 ? 0.0 : (double) bytes / count;
+    }
+
+    public double getErrorRate() {
+        return count == 0 ? 0.0 : (double) errors / count;
+    }
+
+    public double percentileMillis(double quantile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        int index = Math.max(0, (int) Math.ceil(quantile * count) - 1);
+        return sorted[index] / 1_000_000.0;
+    }
+}
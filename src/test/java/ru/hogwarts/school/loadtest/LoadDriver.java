@@ -0,0 +1,94 @@
+package ru.hogwarts.school.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Замкнутая модель нагрузки: каждый поток отправляет следующий запрос сразу после ответа на предыдущий
+public class LoadDriver {
+
+    public record Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    private final HttpClient client;
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    // HTTP_2 на http:// — h2c через Upgrade; клиент тело не распаковывает, поэтому считаются байты с провода
+    public LoadDriver(List<Operation> operations, HttpClient.Version version) {
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    public Map<String, EndpointStats> run(int threads, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, EndpointStats>>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> work(measureFrom, stopAt)));
+            }
+
+            Map<String, EndpointStats> merged = new TreeMap<>();
+            for (Future<Map<String, EndpointStats>> worker : workers) {
+                worker.get().forEach((name, stats) -> merged.computeIfAbsent(name, n -> new EndpointStats()).merge(stats));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, EndpointStats> work(long measureFrom, long stopAt) {
+        Map<String, EndpointStats> local = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < stopAt) {
+            Operation operation = pick(random.nextInt(totalWeight));
+            HttpRequest request = operation.request().apply(random);
+
+            long start = System.nanoTime();
+            boolean error;
+            long bytes = 0;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                error = response.statusCode() >= 400;
+                bytes = response.body().length;
+            } catch (Exception e) {
+                error = true;
+            }
+            long end = System.nanoTime();
+
+            if (start >= measureFrom) {
+                local.computeIfAbsent(operation.name(), n -> new EndpointStats()).record(end - start, error, bytes);
+            }
+        }
+        return local;
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
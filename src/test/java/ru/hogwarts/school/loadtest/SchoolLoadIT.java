@@ -0,0 +1,211 @@
+package ru.hogwarts.school.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.hogwarts.school.SchoolApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// mvn -Ploadtest verify -Dloadtest.students=100000 -Dloadtest.baseline=target/loadtest-report-previous.json
+// Без сжатия и по HTTP/1.1 для сравнения: -Dloadtest.http=HTTP_1_1 -Dloadtest.acceptEncoding=
+// Виртуальные потоки с bulkhead против потока на запрос: прогон без профиля сохраняется как baseline,
+// затем -Dloadtest.profiles=virtual -Dloadtest.threads=400 -Dloadtest.baseline=...; отказы bulkhead (503) идут в errorRate
+class SchoolLoadIT {
+
+    private static final int FACULTIES = Integer.getInteger("loadtest.faculties", 4);
+    private static final int STUDENTS = Integer.getInteger("loadtest.students", 10_000);
+    private static final int AVATARS = Integer.getInteger("loadtest.avatars", 1_000);
+    private static final int AVATAR_BYTES = Integer.getInteger("loadtest.avatarBytes", 10 * 1024);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 30));
+    private static final double MAX_P99_MS = Double.parseDouble(System.getProperty("loadtest.maxP99Ms", "250"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.001"));
+    private static final double MAX_REGRESSION = Double.parseDouble(System.getProperty("loadtest.maxRegression", "0.20"));
+    private static final String BASELINE = System.getProperty("loadtest.baseline");
+    private static final HttpClient.Version HTTP_VERSION = HttpClient.Version.valueOf(
+            System.getProperty("loadtest.http", "HTTP_2"));
+    private static final String ACCEPT_ENCODING = System.getProperty("loadtest.acceptEncoding", "gzip");
+    private static final String PROFILES = System.getProperty("loadtest.profiles", "");
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+
+        context = new SpringApplicationBuilder(SchoolApplication.class)
+                .profiles(PROFILES.isBlank() ? new String[0] : PROFILES.split(","))
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.jpa.show-sql=false",
+                        "--avatars.directory.path=target/loadtest/avatars/");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @AfterAll
+    static void stopApplication() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void mixedWorkload_ShouldStayWithinThresholds() throws Exception {
+        // Given
+        LoadDriver driver = new LoadDriver(operations(), HTTP_VERSION);
+
+        // When
+        Map<String, EndpointStats> results = driver.run(THREADS, WARMUP, DURATION);
+
+        // Then
+        Map<String, Map<String, Object>> report = report(results);
+        Path reportFile = Path.of("target", "loadtest-report.json");
+        Files.createDirectories(reportFile.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        report.forEach((endpoint, row) -> System.out.printf("%-24s %s%n", endpoint, row));
+
+        JsonNode baseline = BASELINE != null ? new ObjectMapper().readTree(Path.of(BASELINE).toFile()) : null;
+        List<String> failures = new ArrayList<>();
+        report.forEach((endpoint, row) -> {
+            double p99 = (double) row.get("p99Ms");
+            double errorRate = (double) row.get("errorRate");
+            double throughput = (double) row.get("throughputPerSecond");
+            if (p99 > MAX_P99_MS) {
+                failures.add(endpoint + ": p99 " + p99 + " ms > " + MAX_P99_MS + " ms");
+            }
+            if (errorRate > MAX_ERROR_RATE) {
+                failures.add(endpoint + ": error rate " + errorRate + " > " + MAX_ERROR_RATE);
+            }
+            if (baseline != null && baseline.has(endpoint)) {
+                double baselineP99 = baseline.get(endpoint).get("p99Ms").asDouble();
+                double baselineThroughput = baseline.get(endpoint).get("throughputPerSecond").asDouble();
+                if (p99 > baselineP99 * (1 + MAX_REGRESSION)) {
+                    failures.add(endpoint + ": p99 regressed from " + baselineP99 + " to " + p99 + " ms");
+                }
+                if (throughput < baselineThroughput * (1 - MAX_REGRESSION)) {
+                    failures.add(endpoint + ": throughput regressed from " + baselineThroughput + " to " + throughput + "/s");
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private static List<LoadDriver.Operation> operations() {
+        return List.of(
+                new LoadDriver.Operation("GET /student/{id}", 30,
+                        random -> get("/student/" + (1 + random.nextInt(STUDENTS)))),
+                new LoadDriver.Operation("GET /student page", 15,
+                        random -> get("/student?limit=20&sort=name")),
+                new LoadDriver.Operation("GET /faculty/{id}", 10,
+                        random -> get("/faculty/" + (1 + random.nextInt(FACULTIES)))),
+                new LoadDriver.Operation("GET /faculty", 5,
+                        random -> get("/faculty")),
+                new LoadDriver.Operation("GET /faculty/students", 10,
+                        random -> get("/faculty/students/" + (1 + random.nextInt(FACULTIES)))),
+                new LoadDriver.Operation("GET avatar preview", 15,
+                        random -> get("/student/" + (1 + random.nextInt(AVATARS)) + "/avatar/preview")),
+                new LoadDriver.Operation("POST /student", 10,
+                        random -> send("POST", "{\"name\":\"Нагрузка " + random.nextLong() + "\",\"age\":17}")),
+                new LoadDriver.Operation("PUT /student", 10,
+                        random -> send("PUT", "{\"id\":" + (1 + random.nextInt(STUDENTS)) + ",\"name\":\"Студент "
+                                + random.nextInt() + "\",\"age\":18}")));
+    }
+
+    private static HttpRequest get(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(10));
+        if (!ACCEPT_ENCODING.isEmpty()) {
+            builder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        return builder.GET().build();
+    }
+
+    private static HttpRequest send(String method, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/student"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static Map<String, Map<String, Object>> report(Map<String, EndpointStats> results) {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        results.forEach((endpoint, stats) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", stats.getRequests());
+            row.put("throughputPerSecond", (double) stats.getRequests() / DURATION.toSeconds());
+            row.put("p50Ms", stats.percentileMillis(0.50));
+            row.put("p99Ms", stats.percentileMillis(0.99));
+            row.put("p999Ms", stats.percentileMillis(0.999));
+            row.put("errorRate", stats.getErrorRate());
+            row.put("avgResponseBytes", stats.getAverageBytes());
+            row.put("bytesPerSecond", (double) stats.getBytes() / DURATION.toSeconds());
+            report.put(endpoint, row);
+        });
+        return report;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> faculties = new ArrayList<>();
+        for (long id = 1; id <= FACULTIES; id++) {
+            faculties.add(new Object[]{id, "Факультет " + id, "Цвет " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO faculties (id, name, color) VALUES (?, ?, ?)", faculties);
+
+        Random random = new Random(42);
+        List<Object[]> students = new ArrayList<>();
+        for (long id = 1; id <= STUDENTS; id++) {
+            students.add(new Object[]{id, "Студент " + id, 16 + random.nextInt(5), 1 + (id % FACULTIES)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (id, name, age, faculty_id) VALUES (?, ?, ?, ?)", students);
+
+        byte[] avatar = new byte[AVATAR_BYTES];
+        random.nextBytes(avatar);
+        List<Object[]> avatars = new ArrayList<>();
+        for (long id = 1; id <= Math.min(AVATARS, STUDENTS); id++) {
+            avatars.add(new Object[]{id, "target/loadtest/avatars/" + id + ".jpg", "image/jpeg", AVATAR_BYTES, avatar, id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO avatars (id, file_path, media_type, file_size, data, student_id) "
+                + "VALUES (?, ?, ?, ?, lo_from_bytea(0, ?), ?)", avatars);
+
+        // Hibernate берёт id пачками по 50 (pooled optimizer), поэтому сдвигаем последовательности за засеянные id
+        jdbcTemplate.execute("SELECT setval('faculties_seq', " + (FACULTIES + 50) + ")");
+        jdbcTemplate.execute("SELECT setval('students_seq', " + (STUDENTS + 50) + ")");
+        jdbcTemplate.execute("SELECT setval('avatars_seq', " + (AVATARS + 50) + ")");
+    }
+}
@@ -0,0 +1,58 @@
+package ru.hogwarts.school.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledInfoTurboFilterTest {
+
+    private SampledInfoTurboFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SampledInfoTurboFilter();
+        filter.setMarker(LogMarkers.INVOCATION.getName());
+        filter.setSampleRate(10);
+        filter.start();
+        logger = new LoggerContext().getLogger("ru.hogwarts.school.service.StudentService");
+    }
+
+    @Test
+    void decide_WithInvocationMarker_ShouldPassOneInSampleRate() {
+        // When
+        int passed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (decide(LogMarkers.INVOCATION, Level.INFO) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        // Then
+        assertEquals(10, passed);
+    }
+
+    @Test
+    void decide_WithoutMarker_ShouldNeverSample() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(null, Level.INFO));
+        }
+    }
+
+    @Test
+    void decide_WithInvocationMarkerAtWarn_ShouldNeverSample() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(LogMarkers.INVOCATION, Level.WARN));
+        }
+    }
+
+    // Вспомогательные методы
+    private FilterReply decide(org.slf4j.Marker marker, Level level) {
+        return filter.decide(marker, logger, level, "Was invoked method for get student by id", null, null);
+    }
+}
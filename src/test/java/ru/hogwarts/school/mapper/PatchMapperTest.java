@@ -0,0 +1,59 @@
+package ru.hogwarts.school.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.repository.StudentPatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchMapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FacultyMapper facultyMapper = new FacultyMapper();
+    private final StudentMapper studentMapper = new StudentMapper(facultyMapper);
+
+    @Test
+    void studentToPatch_WithIntegralFields_ShouldMapThem() throws Exception {
+        // When
+        StudentPatch patch = studentMapper.toPatch(json("{\"age\": 18, \"faculty\": {\"id\": 2}, \"version\": 3}"));
+
+        // Then
+        assertEquals(18, patch.getAge());
+        assertEquals(2L, patch.getFacultyId());
+        assertEquals(3L, patch.getExpectedVersion());
+    }
+
+    @Test
+    void studentToPatch_WithFractionalAge_ShouldReject() throws Exception {
+        JsonNode patch = json("{\"age\": 17.5}");
+
+        assertThrows(IllegalArgumentException.class, () -> studentMapper.toPatch(patch));
+    }
+
+    @Test
+    void studentToPatch_WithNonNumericVersion_ShouldReject() throws Exception {
+        JsonNode patch = json("{\"name\": \"Гарри\", \"version\": \"abc\"}");
+
+        assertThrows(IllegalArgumentException.class, () -> studentMapper.toPatch(patch));
+    }
+
+    @Test
+    void studentToPatch_WithFractionalFacultyId_ShouldReject() throws Exception {
+        JsonNode patch = json("{\"faculty\": {\"id\": 1.5}}");
+
+        assertThrows(IllegalArgumentException.class, () -> studentMapper.toPatch(patch));
+    }
+
+    @Test
+    void facultyToPatch_WithNonNumericVersion_ShouldReject() throws Exception {
+        JsonNode patch = json("{\"color\": \"red\", \"version\": true}");
+
+        assertThrows(IllegalArgumentException.class, () -> facultyMapper.toPatch(patch));
+    }
+
+    // Вспомогательные методы
+    private JsonNode json(String content) throws Exception {
+        return objectMapper.readTree(content);
+    }
+}
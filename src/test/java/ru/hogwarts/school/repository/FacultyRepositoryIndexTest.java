@@ -0,0 +1,207 @@
+package ru.hogwarts.school.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.Hibernate;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.hogwarts.school.model.Faculty;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.hogwarts.school.controller.TestConstants.*;
+
+// Настоящий PostgreSQL: схема из тестового скрипта, индексы — из changelog Liquibase при старте контекста
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FacultyRepositoryIndexTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingStatementInspector statementInspector;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void seedFaculties() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            rows.add(new Object[]{id, "Факультет " + id, "Цвет " + id});
+        }
+        rows.add(new Object[]{2_001L, GRYFFINDOR_NAME, GRYFFINDOR_COLOR});
+        jdbcTemplate.batchUpdate("INSERT INTO faculties (id, name, color) VALUES (?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE faculties");
+        statementInspector.clear();
+    }
+
+    @Test
+    void findByColorIgnoreCase_ShouldMatchAnyCaseAndUseLowerIndex() {
+        // When
+        Collection<Faculty> faculties = facultyRepository.findByColorIgnoreCase(GRYFFINDOR_COLOR.toUpperCase());
+
+        // Then
+        assertEquals(1, faculties.size());
+        assertTrue(issuedPlan(GRYFFINDOR_COLOR.toUpperCase()).contains("idx_faculties_lower_color"));
+    }
+
+    @Test
+    void findByNameIgnoreCase_ShouldMatchAnyCaseAndUseLowerIndex() {
+        // When
+        Collection<Faculty> faculties = facultyRepository.findByNameIgnoreCase(GRYFFINDOR_NAME.toLowerCase());
+
+        // Then
+        assertEquals(1, faculties.size());
+        assertTrue(issuedPlan(GRYFFINDOR_NAME.toLowerCase()).contains("idx_faculties_lower_name"));
+    }
+
+    @Test
+    void upperPredicate_ShouldNotBeAbleToUseLowerIndex() {
+        assertFalse(plan("SELECT * FROM faculties WHERE upper(name) = upper('" + GRYFFINDOR_NAME + "')")
+                .contains("idx_faculties_lower_name"));
+    }
+
+    @Test
+    void findTop_ShouldReadNameLengthIndex() {
+        // When
+        List<Faculty> top = facultyRepository.findTop(FacultyRanking.NAME_LENGTH, 1);
+
+        // Then
+        assertEquals("Факультет 1000", top.get(0).getName());
+        assertTrue(issuedPlan(1).contains("idx_faculties_name_length"));
+    }
+
+    @Test
+    void fetchStudents_ShouldInitializeRostersOfLoadedFacultiesInOneQuery() {
+        // Given
+        jdbcTemplate.update("INSERT INTO students (id, name, age, faculty_id) VALUES (1, ?, ?, 1), (2, ?, ?, 2), (3, ?, ?, 2)",
+                HARRY_POTTER_NAME, STUDENT_AGE_17, DRACO_MALFOY_NAME, STUDENT_AGE_17, RON_WEASLEY_NAME, STUDENT_AGE_16);
+        List<Faculty> faculties = facultyRepository.findAllById(List.of(1L, 2L, 3L));
+        statementInspector.clear();
+
+        // When
+        facultyRepository.fetchStudents(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(1, statementInspector.getStatements().size());
+        faculties.forEach(faculty -> assertTrue(Hibernate.isInitialized(faculty.getStudents())));
+        Map<Long, Integer> rosterSizes = faculties.stream()
+                .collect(Collectors.toMap(Faculty::getId, faculty -> faculty.getStudents().size()));
+        assertEquals(Map.of(1L, 1, 2L, 2, 3L, 0), rosterSizes);
+        assertEquals(1, statementInspector.getStatements().size());
+    }
+
+    // Вспомогательные методы
+    private String plan(String sql) {
+        // Тест транзакционный, поэтому SET LOCAL и EXPLAIN идут в одном соединении.
+        // Без seq scan планировщик обязан взять индекс, если предикат вообще им обслуживается
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    // План первого запроса, который Hibernate отправил после очистки: его SQL с позиционными ?
+    // готовится как PREPARE с $1, $2, ... и объясняется с теми же значениями параметров
+    private String issuedPlan(Object... parameters) {
+        List<String> statements = statementInspector.getStatements();
+        assertFalse(statements.isEmpty(), "Hibernate не отправил ни одного запроса");
+        String sql = statements.get(0);
+
+        StringBuilder prepared = new StringBuilder();
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++index);
+            } else {
+                prepared.append(c);
+            }
+        }
+        assertEquals(parameters.length, index, sql);
+
+        String values = Arrays.stream(parameters)
+                .map(value -> value instanceof String text ? "'" + text.replace("'", "''") + "'" : String.valueOf(value))
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("PREPARE issued AS " + prepared);
+        try {
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN EXECUTE issued(" + values + ")", String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE issued");
+        }
+    }
+
+    // Записывает SQL, который Hibernate действительно отправляет в базу
+    static class RecordingStatementInspector implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> getStatements() {
+            return statements;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        RecordingStatementInspector statementInspector() {
+            return new RecordingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(RecordingStatementInspector statementInspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.hogwarts.school.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.repository.StudentPatch;
+
+import java.sql.Connection;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Два контекста приложения на одной базе изображают два узла
+class CacheInvalidationTest {
+
+    private static final long STUDENT_ID = 1L;
+    private static final long TIMEOUT_MS = 5_000;
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("loadtest/schema.sql"));
+        }
+        nodeA = startNode();
+        nodeB = startNode();
+
+        nodeA.getBean(JdbcTemplate.class)
+                .update("INSERT INTO students (id, name, age) VALUES (?, ?, ?)", STUDENT_ID, "Гарри", 11);
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void writeOnOneNode_EvictsCachedStudentOnOtherNode() throws InterruptedException {
+        // Given
+        StudentService serviceA = nodeA.getBean(StudentService.class);
+        StudentService serviceB = nodeB.getBean(StudentService.class);
+        CacheInvalidationListener listenerB = nodeB.getBean(CacheInvalidationListener.class);
+        // При подключении слушатель сбрасывает кэш, поэтому ждём его до первого чтения
+        awaitTrue(listenerB::isListening);
+        assertEquals(11, serviceB.getStudentById(STUDENT_ID).getAge());
+
+        // Запись мимо сервиса уведомления не шлёт: узел B продолжает отдавать закэшированное значение
+        nodeA.getBean(JdbcTemplate.class).update("UPDATE students SET age = 12 WHERE id = ?", STUDENT_ID);
+        assertEquals(11, serviceB.getStudentById(STUDENT_ID).getAge());
+
+        // When
+        StudentPatch patch = new StudentPatch();
+        patch.setAge(13);
+        serviceA.patchStudent(STUDENT_ID, patch);
+
+        // Then
+        awaitTrue(() -> serviceB.getStudentById(STUDENT_ID).getAge() == 13);
+        assertTrue(listenerB.getNotifications() > 0);
+    }
+
+    // Вспомогательные методы
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MS + " ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(SchoolApplication.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.jpa.show-sql=false",
+                        "--analytics.snapshot.refresh-ms=600000");
+    }
+}
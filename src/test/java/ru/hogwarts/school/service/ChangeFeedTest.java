@@ -0,0 +1,148 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private ChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayMissedEventsThenDeliverLive() throws InterruptedException {
+        // Given
+        feed = new ChangeFeed(100, 16, Duration.ofMinutes(1));
+        publishStudents(3);
+        RecordingSink sink = new RecordingSink();
+
+        // When
+        feed.subscribe(1L, sink);
+        publishStudents(1);
+
+        // Then
+        assertEquals("event:2", sink.next());
+        assertEquals("event:3", sink.next());
+        assertEquals("event:4", sink.next());
+    }
+
+    @Test
+    void subscribe_WhenLastEventIdWasEvicted_ShouldResyncAndReplayHistory() throws InterruptedException {
+        // Given
+        feed = new ChangeFeed(2, 16, Duration.ofMinutes(1));
+        publishStudents(5);
+        RecordingSink sink = new RecordingSink();
+
+        // When
+        feed.subscribe(1L, sink);
+
+        // Then
+        assertEquals("resync:3", sink.next());
+        assertEquals("event:4", sink.next());
+        assertEquals("event:5", sink.next());
+    }
+
+    @Test
+    void publish_WhenSubscriberIsStalled_ShouldDropItWithoutBlockingWriter() throws InterruptedException {
+        // Given
+        feed = new ChangeFeed(100, 2, Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void send(ChangeEvent event) {
+                // Клиент не читает: запись в сокет висит
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ChangeFeed.Subscription subscription = feed.subscribe(null, sink);
+
+        // When
+        long start = System.nanoTime();
+        publishStudents(10);
+        long elapsed = System.nanoTime() - start;
+        release.countDown();
+
+        // Then
+        assertTrue(subscription.isDropped());
+        assertEquals(1, feed.getDropped());
+        assertEquals(10, feed.getPublished());
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1));
+        assertEquals("close", sink.next());
+        assertEquals(0, feed.getSubscribers());
+    }
+
+    @Test
+    void publish_WithBulkChunk_ShouldDeliverOneEventForTheWholeRange() throws InterruptedException {
+        // Given
+        feed = new ChangeFeed(100, 2, Duration.ofMinutes(1));
+        BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<>();
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void send(ChangeEvent event) {
+                events.add(event);
+            }
+        };
+        ChangeFeed.Subscription subscription = feed.subscribe(null, sink);
+
+        // When
+        feed.publish(ChangeEvent.Entity.STUDENT, ChangeEvent.Action.DELETED, 11L, 1010L, 1000);
+
+        // Then
+        ChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(11L, event.entityId());
+        assertEquals(1010L, event.lastEntityId());
+        assertEquals(1000, event.count());
+        assertEquals(1, feed.getPublished());
+        assertFalse(subscription.isDropped());
+    }
+
+    // Вспомогательные методы
+    private void publishStudents(int count) {
+        for (int i = 0; i < count; i++) {
+            feed.publish(ChangeEvent.Entity.STUDENT, ChangeEvent.Action.UPDATED, 1L);
+        }
+    }
+
+    private static class RecordingSink implements ChangeFeed.Sink {
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(ChangeEvent event) {
+            received.add("event:" + event.id());
+        }
+
+        @Override
+        public void resync(long lastEventId) {
+            received.add("resync:" + lastEventId);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            received.add("close");
+        }
+
+        String next() throws InterruptedException {
+            return received.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
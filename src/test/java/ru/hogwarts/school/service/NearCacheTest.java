@@ -0,0 +1,71 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    @Test
+    void get_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Given: 32 записи — 16 сегментов по 2; ключи 1, 17 и 33 попадают в один сегмент
+        NearCache<String> cache = new NearCache<>("test", 32);
+        cache.get(1L, () -> "one");
+        cache.get(17L, () -> "seventeen");
+        cache.get(1L, () -> "reloaded");
+
+        // When
+        cache.get(33L, () -> "thirty-three");
+
+        // Then
+        assertEquals("one", cache.get(1L, () -> "reloaded"));
+        assertEquals("reloaded", cache.get(17L, () -> "reloaded"));
+    }
+
+    @Test
+    void get_WhenOtherKeyEvictedDuringLoad_ShouldStillCache() {
+        // Given
+        NearCache<String> cache = new NearCache<>("test", 1_000);
+
+        // When
+        cache.get(1L, () -> {
+            cache.evict(2L);
+            return "one";
+        });
+
+        // Then
+        assertEquals("one", cache.get(1L, () -> "reloaded"));
+    }
+
+    @Test
+    void get_WhenSameKeyEvictedDuringLoad_ShouldNotCacheLoadedValue() {
+        // Given
+        NearCache<String> cache = new NearCache<>("test", 1_000);
+
+        // When
+        cache.get(1L, () -> {
+            cache.evict(1L);
+            return "stale";
+        });
+
+        // Then
+        assertEquals("fresh", cache.get(1L, () -> "fresh"));
+    }
+
+    @Test
+    void get_AfterTtl_ShouldReload() throws InterruptedException {
+        // Given
+        NearCache<String> cache = new NearCache<>("test", 1_000, Duration.ofMillis(20));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, () -> "v" + loads.incrementAndGet());
+
+        // When
+        Thread.sleep(50);
+
+        // Then
+        assertEquals("v2", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+    }
+}
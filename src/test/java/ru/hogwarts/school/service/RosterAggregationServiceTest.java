@@ -0,0 +1,72 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterAggregationServiceTest {
+
+    private final RosterAggregationService service = new RosterAggregationService(4);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void aggregate_AcrossManyLeaves_ShouldMatchSequentialResult() {
+        // Given
+        int size = RosterAggregationService.LEAF_SIZE * 5 + 7;
+        int[] ages = IntStream.range(0, size).map(i -> 11 + i % 8).toArray();
+        int[] facultyIds = IntStream.range(0, size).map(i -> i % 3).toArray();
+        double mean = IntStream.of(ages).average().orElseThrow();
+        double variance = IntStream.of(ages).mapToDouble(age -> (age - mean) * (age - mean)).sum() / size;
+
+        // When
+        RosterStatistics statistics = service.aggregate(ages, facultyIds);
+
+        // Then
+        assertEquals(size, statistics.count());
+        assertEquals(IntStream.of(ages).asLongStream().sum(), statistics.sum());
+        assertEquals(mean, statistics.mean(), 1e-9);
+        assertEquals(variance, statistics.variance(), 1e-9);
+        assertEquals(11, statistics.min());
+        assertEquals(18, statistics.max());
+        assertEquals(3, statistics.byFaculty().size());
+        assertEquals(size, statistics.byFaculty().values().stream()
+                .mapToLong(RosterStatistics.FacultyAgeStatistics::count).sum());
+    }
+
+    @Test
+    void aggregate_ShouldReturnNearestRankPercentiles() {
+        // Given
+        int[] ages = IntStream.rangeClosed(1, 100).toArray();
+
+        // When
+        RosterStatistics statistics = service.aggregate(ages, new int[ages.length]);
+
+        // Then
+        assertEquals(50, statistics.percentiles().get("p50"));
+        assertEquals(90, statistics.percentiles().get("p90"));
+        assertEquals(99, statistics.percentiles().get("p99"));
+    }
+
+    @Test
+    void aggregate_EmptyRoster_ShouldReturnZeroes() {
+        // When
+        RosterStatistics statistics = service.aggregate(new int[0], new int[0]);
+
+        // Then
+        assertEquals(0, statistics.count());
+        assertNull(statistics.min());
+        assertTrue(statistics.percentiles().isEmpty());
+    }
+
+    @Test
+    void sumRange_ShouldNotOverflow() {
+        assertEquals(500_000_500_000L, service.sumRange(1, 1_000_000));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentSnapshotTest {
+
+    @Test
+    void builder_ShouldDictionaryEncodeNamesAndMapFacultyOrdinals() {
+        // Given
+        StudentSnapshot snapshot = StudentSnapshot.builder(2)
+                .faculty(10L)
+                .faculty(20L)
+                .student(1L, "Анна", 17, 20L)
+                .student(2L, "Борис", 15, null)
+                .student(3L, "Анна", 16, 10L)
+                .student(4L, "алексей", 18, 10L)
+                .build(Instant.EPOCH);
+
+        // When & Then
+        assertEquals(4, snapshot.size());
+        assertEquals(16.5f, snapshot.averageAge());
+        assertArrayEquals(new int[]{1, StudentSnapshot.NO_FACULTY, 0, 0}, snapshot.facultyOrdinals());
+        assertEquals(20L, snapshot.facultyId(1));
+        assertEquals(0L, snapshot.facultyId(StudentSnapshot.NO_FACULTY));
+        assertEquals(List.of("Анна", "Анна", "алексей"), snapshot.namesStartingWith("а"));
+        assertTrue(snapshot.estimatedBytes() > 0);
+    }
+
+    @Test
+    void empty_ShouldHaveNoAverage() {
+        assertNull(StudentSnapshot.empty().averageAge());
+    }
+}
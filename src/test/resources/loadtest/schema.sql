@@ -0,0 +1,26 @@
+-- Schema the entities validate against (spring.jpa.hibernate.ddl-auto=validate); Liquibase only adds indexes on top
+CREATE SEQUENCE faculties_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE students_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE avatars_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE faculties (
+    id    BIGINT PRIMARY KEY,
+    name  VARCHAR(255),
+    color VARCHAR(255)
+);
+
+CREATE TABLE students (
+    id         BIGINT PRIMARY KEY,
+    name       VARCHAR(255),
+    age        INTEGER NOT NULL,
+    faculty_id BIGINT REFERENCES faculties (id)
+);
+
+CREATE TABLE avatars (
+    id         BIGINT PRIMARY KEY,
+    file_path  VARCHAR(255),
+    media_type VARCHAR(255),
+    file_size  BIGINT NOT NULL,
+    data       OID,
+    student_id BIGINT UNIQUE REFERENCES students (id)
+);